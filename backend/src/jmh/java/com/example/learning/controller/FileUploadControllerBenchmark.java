@@ -0,0 +1,89 @@
+package com.example.learning.controller;
+
+import com.example.learning.service.AttachmentStorageService;
+import com.example.learning.service.ThumbnailService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single file upload path (FileUploadController.uploadFile) writing to a
+ * temporary upload directory, in both storage modes. Content-addressed uploads
+ * of the same bytes after the first one measure the dedup path.
+ */
+// Thread scope: setup must run on the benchmark thread for RequestContextHolder
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileUploadControllerBenchmark {
+
+    @Param({ "65536", "1048576" })
+    public int fileSize;
+
+    @Param({ "uuid", "content-addressed" })
+    public String storage;
+
+    private Path uploadDir;
+    private FileUploadController controller;
+    private MockMultipartFile file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        uploadDir = Files.createTempDirectory("upload-benchmark");
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AttachmentStorageService storageService = new AttachmentStorageService(uploadDir.toString(), storage,
+                meterRegistry);
+        // No preview widths: measure the upload write path only
+        controller = new FileUploadController(storageService,
+                new ThumbnailService(storageService, List.of(), 1, 1, 0, meterRegistry));
+        byte[] content = new byte[fileSize];
+        new Random(42).nextBytes(content);
+        file = new MockMultipartFile("file", "image.png", "image/png", content);
+        // uploadFile builds the download URL from the current request
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @TearDown(Level.Iteration)
+    public void cleanUploads() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+        Files.createDirectories(uploadDir);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        RequestContextHolder.resetRequestAttributes();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public ResponseEntity<String> uploadFile() {
+        return controller.uploadFile(file);
+    }
+}
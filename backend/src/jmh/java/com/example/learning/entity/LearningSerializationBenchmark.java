@@ -0,0 +1,82 @@
+package com.example.learning.entity;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of a GET /learnings response page, with descriptions
+ * of realistic size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LearningSerializationBenchmark {
+
+    @Param({ "10", "100" })
+    public int pageSize;
+
+    @Param({ "200", "5000" })
+    public int descriptionLength;
+
+    private ObjectMapper objectMapper;
+    private Map<String, Object> response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+
+        List<Learning> learnings = new ArrayList<>();
+        for (int i = 0; i < pageSize; i++) {
+            Learning learning = new Learning();
+            learning.setId((long) i);
+            learning.setTitle("Learning " + i);
+            learning.setDescription("x".repeat(descriptionLength));
+            learning.setCategory(i % 2 == 0 ? "Job" : "Life");
+            learning.setDate(LocalDate.of(2023, 10, 1).plusDays(i));
+            learning.setTags("java,spring,benchmark");
+            learning.setAttachments("[{\"url\":\"http://localhost/uploads/" + i + ".png\",\"filename\":\"file.png\"}]");
+            learning.setCustomProperties("{\"source\":\"book\",\"difficulty\":\"hard\"}");
+            learnings.add(learning);
+        }
+
+        // Same shape as LearningController.getAllLearnings
+        response = new HashMap<>();
+        response.put("learnings", learnings);
+        response.put("currentPage", 0);
+        response.put("totalItems", 10_000L);
+        response.put("totalPages", 10_000 / pageSize);
+        response.put("pageSize", pageSize);
+        response.put("hasNext", true);
+        response.put("hasPrevious", false);
+        response.put("searchTerm", null);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.learning.repository;
+
+import com.example.learning.LearningApplication;
+import com.example.learning.entity.Learning;
+import com.example.learning.search.LearningSearchService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persistence hot paths against the in-memory H2 datasource of the "test"
+ * profile: the list page query (+count), keyset pages and full-text search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LearningRepositoryBenchmark {
+
+    @Param({ "10000" })
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private LearningRepository learningRepository;
+    private LearningSearchService learningSearchService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(LearningApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "spring.main.banner-mode=off", "logging.level.root=WARN")
+                // No actuator port, so a locally running instance doesn't make startup fail
+                .run("--management.server.port=-1");
+        learningRepository = context.getBean(LearningRepository.class);
+        learningSearchService = context.getBean(LearningSearchService.class);
+
+        List<Learning> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Learning learning = new Learning();
+            learning.setTitle("Learning " + i + (i % 10 == 0 ? " kafka" : ""));
+            learning.setDescription("Notes about spring, java and databases #" + i);
+            learning.setCategory(i % 3 == 0 ? "Life" : "Job");
+            learning.setDate(LocalDate.of(2020, 1, 1).plusDays(i % 1500));
+            learning.setTags("java,spring");
+            batch.add(learning);
+            if (batch.size() == 500) {
+                learningRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        learningRepository.saveAll(batch);
+        learningSearchService.rebuildIndex();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Learning> findAllFirstPage() {
+        return learningRepository.findAll(PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public Page<Learning> findAllDeepPage() {
+        return learningRepository.findAll(PageRequest.of(rows / 10 - 1, 10));
+    }
+
+    @Benchmark
+    public List<Learning> keysetFirstPage() {
+        return learningRepository.findKeysetFirstPage(Limit.of(11));
+    }
+
+    @Benchmark
+    public Page<Learning> findBySearchTermLike() {
+        return learningRepository.findBySearchTerm("kafka", PageRequest.of(0, 10));
+    }
+
+    @Benchmark
+    public Page<Learning> fullTextSearch() {
+        return learningSearchService.search("kafka", PageRequest.of(0, 10));
+    }
+}
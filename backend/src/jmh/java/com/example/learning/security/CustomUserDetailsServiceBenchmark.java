@@ -0,0 +1,36 @@
+package com.example.learning.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Roles string parsing done for every loadUserByUsername call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomUserDetailsServiceBenchmark {
+
+    @Param({ "ROLE_USER", "ROLE_USER,ROLE_ADMIN", "ROLE_USER, ROLE_ADMIN, ROLE_EDITOR, ROLE_AUDITOR" })
+    public String roles;
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return CustomUserDetailsService.getAuthorities(roles);
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.learning.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request JWT cost in JwtAuthenticationFilter: the previous path (new parser
+ * per call, token parsed three times) vs. a single parse with the prebuilt parser,
+ * with and without the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final SecretKey LEGACY_KEY = Keys.hmacShaKeyFor(
+            "benchmark-secret-key-that-is-at-least-32-characters-long".getBytes(StandardCharsets.UTF_8));
+
+    private UserDetails user;
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() {
+        user = new User("benchmark-user", "password", List.of());
+        cachedJwtUtil = new JwtUtil(10_000, Duration.ofSeconds(60), new SimpleMeterRegistry());
+        uncachedJwtUtil = new JwtUtil(0, Duration.ZERO, new SimpleMeterRegistry());
+        token = cachedJwtUtil.generateToken(user);
+        legacyToken = Jwts.builder()
+                .subject(user.getUsername())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(LEGACY_KEY)
+                .compact();
+    }
+
+    @Benchmark
+    public boolean legacyTripleParse() {
+        // extractUsername in the filter, then extractUsername + extractExpiration in validateToken
+        String username = legacyClaims(legacyToken).getSubject();
+        boolean sameUser = legacyClaims(legacyToken).getSubject().equals(user.getUsername());
+        boolean expired = legacyClaims(legacyToken).getExpiration().before(new Date());
+        return username != null && sameUser && !expired;
+    }
+
+    @Benchmark
+    public boolean singleParse() {
+        Claims claims = uncachedJwtUtil.parseToken(token);
+        return uncachedJwtUtil.validateToken(claims, user);
+    }
+
+    @Benchmark
+    public boolean singleParseCached() {
+        Claims claims = cachedJwtUtil.parseToken(token);
+        return cachedJwtUtil.validateToken(claims, user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cachedJwtUtil.generateToken(user);
+    }
+
+    private static Claims legacyClaims(String token) {
+        return Jwts.parser().verifyWith(LEGACY_KEY).build().parseSignedClaims(token).getPayload();
+    }
+}
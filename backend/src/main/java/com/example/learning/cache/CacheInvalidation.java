@@ -0,0 +1,62 @@
+package com.example.learning.cache;
+
+/**
+ * A committed change to a second-level cached entity, as seen by the other
+ * instances: drop the entity and anything derived from it. Plain values only,
+ * so a bus can send it over the wire.
+ */
+public class CacheInvalidation {
+
+    public enum Type {
+        LEARNING, USER
+    }
+
+    private final String origin;
+    private final Type type;
+    private final Long id;
+    private final String username;
+
+    public CacheInvalidation(String origin, Type type, Long id, String username) {
+        this.origin = origin;
+        this.type = type;
+        this.id = id;
+        this.username = username;
+    }
+
+    public static CacheInvalidation learning(String origin, Long id) {
+        return new CacheInvalidation(origin, Type.LEARNING, id, null);
+    }
+
+    // Every learning, e.g. after a batch write
+    public static CacheInvalidation allLearnings(String origin) {
+        return new CacheInvalidation(origin, Type.LEARNING, null, null);
+    }
+
+    public static CacheInvalidation user(String origin, Long id, String username) {
+        return new CacheInvalidation(origin, Type.USER, id, username);
+    }
+
+    // The instance that made the change
+    public String getOrigin() {
+        return origin;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    // null for allLearnings
+    public Long getId() {
+        return id;
+    }
+
+    // Users only: key of the cached principal
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return type + "#" + id + " from " + origin;
+    }
+}
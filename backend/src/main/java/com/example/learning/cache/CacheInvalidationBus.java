@@ -0,0 +1,26 @@
+package com.example.learning.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries cache invalidations between the instances of the backend, so a
+ * change made on one of them is not served from another instance's
+ * second-level cache. Delivery is best effort; the cache TTLs bound how long
+ * a lost message can leave an instance stale.
+ * <p>
+ * {@link LocalCacheInvalidationBus} covers a single instance. Deployments with
+ * several instances behind the load balancer provide a bean backed by a
+ * shared channel (e.g. PostgreSQL LISTEN/NOTIFY or Redis pub/sub) and set
+ * {@code learning.second-level-cache.invalidation-bus} to something other
+ * than {@code local}.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Sends the invalidation to every subscriber, including those of the
+     * publishing instance.
+     */
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> subscriber);
+}
@@ -0,0 +1,42 @@
+package com.example.learning.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-JVM bus: delivers invalidations synchronously to the subscribers of this
+ * process. Enough for a single instance, and for tests that run several
+ * invalidators against one bus.
+ */
+@Component
+@ConditionalOnProperty(name = "learning.second-level-cache.invalidation-bus", havingValue = "local",
+        matchIfMissing = true)
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalCacheInvalidationBus.class);
+
+    private final List<Consumer<CacheInvalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> subscriber : subscribers) {
+            // One failing subscriber must not keep the others stale
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException ex) {
+                log.warn("Cache invalidation {} failed: {}", invalidation, ex.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> subscriber) {
+        subscribers.add(subscriber);
+    }
+}
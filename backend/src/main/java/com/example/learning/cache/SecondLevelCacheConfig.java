@@ -0,0 +1,91 @@
+package com.example.learning.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Hibernate second-level cache for Learning and User plus the query cache,
+ * held in Caffeine through JCache. Every region is created here with a size
+ * and TTL bound; an entity or query naming any other region fails startup.
+ * <p>
+ * The caches are per instance: Hibernate keeps them current for changes made
+ * here, {@link SecondLevelCacheInvalidator} for changes made elsewhere.
+ * With a read replica configured the query cache is off: a result read behind
+ * the primary would be stored as newer than the last change and served to
+ * everyone. Entities read from the replica are not cached either (see
+ * ReplicaRoutingDataSource).
+ * Hit/miss counts are published as cache.gets{cache=learning|users|...}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "learning.second-level-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class SecondLevelCacheConfig {
+
+    public static final String LEARNING_REGION = "learning";
+    public static final String USER_REGION = "users";
+
+    // Closed with the application context
+    @Bean
+    public CacheManager secondLevelCacheManager(
+            @Value("${learning.second-level-cache.learning.max-size:10000}") long learningMaxSize,
+            @Value("${learning.second-level-cache.learning.ttl:10m}") Duration learningTtl,
+            @Value("${learning.second-level-cache.users.max-size:10000}") long userMaxSize,
+            @Value("${learning.second-level-cache.users.ttl:10m}") Duration userTtl,
+            @Value("${learning.second-level-cache.queries.max-size:1000}") long queryMaxSize,
+            @Value("${learning.second-level-cache.queries.ttl:5m}") Duration queryTtl,
+            MeterRegistry meterRegistry) {
+        // A manager of its own, so application contexts sharing a JVM (tests) don't share entries
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("learning-" + UUID.randomUUID()), getClass().getClassLoader());
+        createCache(cacheManager, LEARNING_REGION, OptionalLong.of(learningMaxSize), learningTtl, meterRegistry);
+        createCache(cacheManager, USER_REGION, OptionalLong.of(userMaxSize), userTtl, meterRegistry);
+        createCache(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                OptionalLong.of(queryMaxSize), queryTtl, meterRegistry);
+        // Last change per table; must outlive the cached results it is checked against,
+        // and holds one entry per table anyway
+        createCache(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME,
+                OptionalLong.empty(), null, meterRegistry);
+        return cacheManager;
+    }
+
+    private static void createCache(CacheManager cacheManager, String name, OptionalLong maxSize, Duration ttl,
+            MeterRegistry meterRegistry) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maxSize);
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        // Hibernate stores immutable cache entries; copying them on every read is wasted work
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        JCacheMetrics.monitor(meterRegistry, cacheManager.createCache(name, configuration));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCache(CacheManager secondLevelCacheManager,
+            @Value("${learning.datasource.replica.jdbc-url:}") String replicaUrl) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, replicaUrl.isBlank());
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.learning.cache;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.entity.User;
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.security.PrincipalCache;
+import com.example.learning.service.LearningResponseCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.UUID;
+
+/**
+ * Keeps the second-level caches of all instances consistent. Committed changes
+ * made here are published on the {@link CacheInvalidationBus}; changes published
+ * by other instances evict the entity, the cached query results and the
+ * response caches built from them. This instance's own messages are ignored:
+ * Hibernate already updated its caches.
+ * <p>
+ * Metrics: cache.invalidations{direction=sent|received}.
+ */
+@Component
+public class SecondLevelCacheInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(SecondLevelCacheInvalidator.class);
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final EntityManagerFactory entityManagerFactory;
+    private final CacheInvalidationBus bus;
+    private final LearningResponseCache learningResponseCache;
+    private final PrincipalCache principalCache;
+    private final Counter sent;
+    private final Counter received;
+
+    public SecondLevelCacheInvalidator(EntityManagerFactory entityManagerFactory, CacheInvalidationBus bus,
+            LearningResponseCache learningResponseCache, PrincipalCache principalCache,
+            MeterRegistry meterRegistry) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.bus = bus;
+        this.learningResponseCache = learningResponseCache;
+        this.principalCache = principalCache;
+        this.sent = invalidationCounter("sent", meterRegistry);
+        this.received = invalidationCounter("received", meterRegistry);
+        bus.subscribe(this::onInvalidation);
+    }
+
+    private static Counter invalidationCounter(String direction, MeterRegistry meterRegistry) {
+        return Counter.builder("cache.invalidations")
+                .description("Second-level cache invalidations exchanged with other instances")
+                .tag("direction", direction)
+                .register(meterRegistry);
+    }
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningChanged(LearningChangedEvent event) {
+        publish(CacheInvalidation.learning(instanceId, event.getLearningId()));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningBatchChanged(LearningBatchChangedEvent event) {
+        publish(CacheInvalidation.allLearnings(instanceId));
+    }
+
+    // Called by UserEntityListener once the change has committed
+    public void onUserChanged(Long id, String username) {
+        publish(CacheInvalidation.user(instanceId, id, username));
+    }
+
+    private void publish(CacheInvalidation invalidation) {
+        sent.increment();
+        bus.publish(invalidation);
+    }
+
+    void onInvalidation(CacheInvalidation invalidation) {
+        if (instanceId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        received.increment();
+        log.debug("Evicting {}", invalidation);
+        Cache cache = entityManagerFactory.getCache();
+        switch (invalidation.getType()) {
+            case LEARNING -> {
+                if (invalidation.getId() == null) {
+                    cache.evict(Learning.class);
+                } else {
+                    cache.evict(Learning.class, invalidation.getId());
+                }
+                learningResponseCache.invalidate();
+            }
+            case USER -> {
+                cache.evict(User.class, invalidation.getId());
+                principalCache.evict(invalidation.getUsername());
+            }
+        }
+        // Any cached result may have included the changed row
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictDefaultQueryRegion();
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.learning.config;
+
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Locale;
+
+/**
+ * Detects which database the application is running against, so features that
+ * rely on vendor specific SQL (PostgreSQL full-text search, jsonb, ...) can
+ * pick a portable fallback on H2.
+ */
+@Component
+public class DatabasePlatform {
+
+    private final String productName;
+
+    public DatabasePlatform(DataSource dataSource) {
+        String name;
+        try (Connection connection = dataSource.getConnection()) {
+            name = connection.getMetaData().getDatabaseProductName();
+        } catch (SQLException ex) {
+            name = "unknown";
+        }
+        this.productName = name.toLowerCase(Locale.ROOT);
+    }
+
+    public boolean isPostgres() {
+        return productName.contains("postgres");
+    }
+
+    public boolean isH2() {
+        return productName.equals("h2");
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+}
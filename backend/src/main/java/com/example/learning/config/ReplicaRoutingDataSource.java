@@ -0,0 +1,189 @@
+package com.example.learning.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to the replica and everything else (writes,
+ * work outside a transaction) to the primary. Must sit behind a
+ * LazyConnectionDataSourceProxy: the read-only flag of a transaction is only
+ * known once it has begun, after the transaction manager asked for a connection.
+ * <p>
+ * Read-your-writes: after a read-write transaction commits, reads of the same
+ * user (or, for anonymous requests, the same client address) go to the primary
+ * for {@code sticky-window}, so replication lag never hides a change from whoever
+ * just made it. Writes from background work (imports) have no reader to keep
+ * consistent and are seen on the replica once it catches up.
+ * <p>
+ * When the replica cannot hand out a connection, reads fall back to the primary
+ * and the replica is not tried again for {@code retry-interval}.
+ * <p>
+ * Transactions reading the replica may use Hibernate's second-level cache but do
+ * not fill it: an entity read behind the primary would otherwise be cached as
+ * current and outlive the replication lag. For the same reason the request is
+ * marked with {@link #REPLICA_READ_ATTRIBUTE}, so response caches can skip it.
+ * <p>
+ * Metrics: datasource.routing{target=primary|replica}, datasource.replica.fallback.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    /**
+     * Request attribute set once the request read from the replica.
+     */
+    public static final String REPLICA_READ_ATTRIBUTE = ReplicaRoutingDataSource.class.getName() + ".REPLICA_READ";
+
+    enum Target {
+        PRIMARY, REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final Cache<String, Boolean> recentWriters;
+    private final long retryIntervalNanos;
+    private volatile long replicaDownUntil;
+    private final Counter primaryConnections;
+    private final Counter replicaConnections;
+    private final Counter fallbacks;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration stickyWindow,
+            Duration retryInterval, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replica = replica;
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(100_000)
+                .expireAfterWrite(stickyWindow)
+                .build();
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.replicaDownUntil = System.nanoTime();
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+        this.primaryConnections = routingCounter("primary", meterRegistry);
+        this.replicaConnections = routingCounter("replica", meterRegistry);
+        this.fallbacks = Counter.builder("datasource.replica.fallback")
+                .description("Read-only connections taken from the primary because the replica failed")
+                .register(meterRegistry);
+    }
+
+    private static Counter routingCounter(String target, MeterRegistry meterRegistry) {
+        return Counter.builder("datasource.routing")
+                .description("Connections handed out by the read/write routing DataSource")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return Target.PRIMARY;
+        }
+        String reader = currentReader();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (reader != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        recentWriters.put(reader, Boolean.TRUE);
+                    }
+                });
+            }
+            return Target.PRIMARY;
+        }
+        if (reader != null && recentWriters.getIfPresent(reader) != null) {
+            return Target.PRIMARY;
+        }
+        return System.nanoTime() - replicaDownUntil < 0 ? Target.PRIMARY : Target.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Target.PRIMARY) {
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+        try {
+            Connection connection = replica.getConnection();
+            replicaConnections.increment();
+            skipCachePuts();
+            if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+                attributes.getRequest().setAttribute(REPLICA_READ_ATTRIBUTE, Boolean.TRUE);
+            }
+            return connection;
+        } catch (SQLException ex) {
+            replicaDownUntil = System.nanoTime() + retryIntervalNanos;
+            fallbacks.increment();
+            log.warn("Replica unavailable, reading from the primary for the next {} ms: {}",
+                    Duration.ofNanos(retryIntervalNanos).toMillis(), ex.getMessage());
+            primaryConnections.increment();
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        // Credentials are configured per pool
+        return getConnection();
+    }
+
+    private static void skipCachePuts() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (!(resource instanceof EntityManagerHolder holder)) {
+                continue;
+            }
+            // The entity manager may outlive the transaction (open-in-view): restore its mode afterwards
+            Session session = holder.getEntityManager().unwrap(Session.class);
+            CacheMode previous = session.getCacheMode();
+            if (!previous.isPutEnabled()) {
+                continue;
+            }
+            session.setCacheMode(CacheMode.GET);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (session.isOpen()) {
+                        session.setCacheMode(previous);
+                    }
+                }
+            });
+        }
+    }
+
+    // Whoever should see their own writes: the user, or the client of an anonymous request
+    private static String currentReader() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            return "user:" + authentication.getName();
+        }
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            return "address:" + attributes.getRequest().getRemoteAddr();
+        }
+        return null;
+    }
+}
@@ -56,8 +56,13 @@ public class SecurityConfig {
                                     "Unauthorized: " + authException.getMessage());
                         }))
                 .authorizeHttpRequests(auth -> auth
+                        // Async dispatches (the SSE change feed) and error pages were authorized on the original request
+                        .dispatcherTypeMatchers(jakarta.servlet.DispatcherType.ASYNC, jakarta.servlet.DispatcherType.ERROR).permitAll()
                         .requestMatchers(org.springframework.http.HttpMethod.OPTIONS, "/**").permitAll()
                         .requestMatchers("/auth/**").permitAll()
+                        // Only reachable on the management port (management.server.port)
+                        .requestMatchers(org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest
+                                .to("health", "prometheus")).permitAll()
                         .requestMatchers("/uploads/**").permitAll()
                         .requestMatchers("/upload/**").authenticated()
                         .requestMatchers("/learnings/**").authenticated()
@@ -0,0 +1,40 @@
+package com.example.learning.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Request execution mode. spring.threads.virtual.enabled=true runs every request
+ * (Tomcat) and async task (applicationTaskExecutor) on its own virtual thread;
+ * the default keeps the bounded Tomcat platform-thread pool.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<RequestConcurrencyLimitFilter> requestConcurrencyLimitFilter(
+            @Value("${learning.threads.max-concurrent-requests:200}") int maxConcurrentRequests,
+            @Value("${learning.threads.admission-timeout:2s}") Duration admissionTimeout,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+
+        log.info("Virtual-thread request execution enabled: max {} concurrent requests, {} JDBC connections",
+                maxConcurrentRequests, poolSize);
+        FilterRegistrationBean<RequestConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new RequestConcurrencyLimitFilter(maxConcurrentRequests, admissionTimeout));
+        // Reject before security and everything else does any work
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
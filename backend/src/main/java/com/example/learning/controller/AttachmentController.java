@@ -0,0 +1,162 @@
+package com.example.learning.controller;
+
+import com.example.learning.service.AttachmentStorageService;
+import com.example.learning.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Serves uploaded attachments. Stored names (UUID or SHA-256 based) are never
+ * reused for different content, so responses carry a strong ETag derived from
+ * the name and may be cached forever. Supports If-None-Match (304), single
+ * byte ranges (206/416, If-Range) and HEAD. The body is sent with Tomcat's
+ * sendfile when the connector offers it, otherwise with FileChannel.transferTo,
+ * so the file is never copied through the heap. A preview variant that is
+ * still being generated is answered with the original and {@code no-cache}.
+ */
+@RestController
+public class AttachmentController {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    // Tomcat sendfile request attributes (see org.apache.coyote.Constants)
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final AttachmentStorageService attachmentStorageService;
+
+    public AttachmentController(AttachmentStorageService attachmentStorageService) {
+        this.attachmentStorageService = attachmentStorageService;
+    }
+
+    // GET mappings also answer HEAD; the body is skipped for HEAD below
+    @GetMapping("/uploads/{filename:.+}")
+    public void serve(@PathVariable String filename, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        Path file = resolveStored(filename);
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        String servedName = filename;
+        String cacheControl = CACHE_CONTROL;
+        if (!Files.isRegularFile(file)) {
+            // Preview not generated yet: serve the original, but don't let it be cached as the preview
+            String original = ThumbnailService.originalOf(filename);
+            file = original != null ? file.resolveSibling(original) : file;
+            if (original == null || !Files.isRegularFile(file)) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return;
+            }
+            servedName = original;
+            cacheControl = "no-cache";
+        }
+
+        String etag = "\"" + servedName + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (matchesEtag(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = Files.size(file);
+        long start = 0;
+        long end = length; // exclusive
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException ex) {
+                ranges = List.of();
+            }
+            // Multi-range requests get the whole file, which RFC 9110 allows
+            if (ranges.size() == 1) {
+                HttpRange httpRange = ranges.get(0);
+                start = httpRange.getRangeStart(length);
+                end = httpRange.getRangeEnd(length) + 1;
+                if (length == 0 || start >= length) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+            }
+        }
+
+        response.setContentType(MediaTypeFactory.getMediaType(filename)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM).toString());
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod()) || end == start) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            // Tomcat writes the file from the kernel after this method returns
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                position += channel.transferTo(position, end - position, out);
+            }
+        }
+    }
+
+    // Any file directly in the upload directory: older uploads kept whatever extension the client sent
+    private Path resolveStored(String filename) {
+        if (filename.startsWith(".")) {
+            return null; // hidden files and the .tmp directory
+        }
+        Path uploadLocation = attachmentStorageService.getUploadLocation();
+        try {
+            Path file = uploadLocation.resolve(filename).normalize();
+            return uploadLocation.equals(file.getParent()) ? file : null;
+        } catch (InvalidPathException ex) {
+            return null;
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
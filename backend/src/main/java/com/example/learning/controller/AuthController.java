@@ -6,7 +6,12 @@ import com.example.learning.dto.RegisterRequest;
 import com.example.learning.entity.User;
 import com.example.learning.repository.UserRepository;
 import com.example.learning.security.JwtUtil;
+import com.example.learning.security.PasswordHashingService;
+import com.example.learning.sql.SqlStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,13 +20,15 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
@@ -35,96 +42,120 @@ public class AuthController {
     private UserRepository userRepository;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Database and JWT work after hashing; the hashing pool only has one thread per core
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor taskExecutor;
+
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@RequestBody RegisterRequest registerRequest) {
+    public CompletableFuture<ResponseEntity<?>> registerUser(@RequestBody RegisterRequest registerRequest) {
         // Validate input
         if (registerRequest.getUsername() == null || registerRequest.getUsername().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(createErrorResponse("Username is required"));
+            return badRequest("Username is required");
         }
         if (registerRequest.getEmail() == null || registerRequest.getEmail().trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(createErrorResponse("Email is required"));
+            return badRequest("Email is required");
         }
         if (registerRequest.getPassword() == null || registerRequest.getPassword().length() < 6) {
-            return ResponseEntity.badRequest().body(createErrorResponse("Password must be at least 6 characters"));
+            return badRequest("Password must be at least 6 characters");
         }
 
         // Check if username already exists
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
-            return ResponseEntity.badRequest().body(createErrorResponse("Username already exists"));
+            return badRequest("Username already exists");
         }
 
         // Check if email already exists
         if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            return ResponseEntity.badRequest().body(createErrorResponse("Email already exists"));
+            return badRequest("Email already exists");
         }
 
-        // Create new user
-        User user = new User();
-        user.setUsername(registerRequest.getUsername());
-        user.setEmail(registerRequest.getEmail());
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
-
-        // First user gets ADMIN role, others get USER role
-        long userCount = userRepository.count();
-        if (userCount == 0) {
-            user.setRoles("ROLE_USER,ROLE_ADMIN");
-        } else {
-            user.setRoles("ROLE_USER");
+        // Hash on the dedicated pool; the request thread is released meanwhile
+        try {
+            return passwordHashingService.encode(registerRequest.getPassword())
+                    .<ResponseEntity<?>>thenApplyAsync(SqlStatistics.wrap(hash -> {
+                        // Create new user
+                        User user = new User();
+                        user.setUsername(registerRequest.getUsername());
+                        user.setEmail(registerRequest.getEmail());
+                        user.setPassword(hash);
+
+                        // First user gets ADMIN role, others get USER role
+                        long userCount = userRepository.count();
+                        if (userCount == 0) {
+                            user.setRoles("ROLE_USER,ROLE_ADMIN");
+                        } else {
+                            user.setRoles("ROLE_USER");
+                        }
+
+                        user.setEnabled(true);
+
+                        userRepository.save(user);
+
+                        return ResponseEntity.ok(createSuccessResponse("User registered successfully"));
+                    }), taskExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busyResponse());
         }
-
-        user.setEnabled(true);
-
-        userRepository.save(user);
-
-        return ResponseEntity.ok(createSuccessResponse("User registered successfully"));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> loginUser(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<ResponseEntity<?>> loginUser(@RequestBody LoginRequest loginRequest) {
         try {
-            // Authenticate user
-            Authentication authentication = authenticationManager.authenticate(
+            // Authenticate user (BCrypt check runs on the password hashing pool)
+            return passwordHashingService.verify(() -> authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
                             loginRequest.getUsername(),
-                            loginRequest.getPassword()));
+                            loginRequest.getPassword())))
+                    .<ResponseEntity<?>>thenApplyAsync(SqlStatistics.wrap(
+                            authentication -> createLoginResponse(authentication, loginRequest)), taskExecutor)
+                    .exceptionally(this::createLoginFailureResponse);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(busyResponse());
+        }
+    }
 
-            SecurityContextHolder.getContext().setAuthentication(authentication);
-            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+    private ResponseEntity<?> createLoginResponse(Authentication authentication, LoginRequest loginRequest) {
+        UserDetails userDetails = (UserDetails) authentication.getPrincipal();
 
-            // Generate JWT token
-            String jwt;
-            if (loginRequest.isRememberMe()) {
-                jwt = jwtUtil.generateTokenWithRememberMe(userDetails);
-            } else {
-                jwt = jwtUtil.generateToken(userDetails);
-            }
+        // Generate JWT token
+        String jwt;
+        if (loginRequest.isRememberMe()) {
+            jwt = jwtUtil.generateTokenWithRememberMe(userDetails);
+        } else {
+            jwt = jwtUtil.generateToken(userDetails);
+        }
 
-            // Get user from database
-            User user = userRepository.findByUsername(loginRequest.getUsername())
-                    .orElseThrow(() -> new RuntimeException("User not found"));
+        // Get user from database
+        User user = userRepository.findByUsername(loginRequest.getUsername())
+                .orElseThrow(() -> new RuntimeException("User not found"));
 
-            // Parse roles
-            List<String> roles = Arrays.stream(user.getRoles().split(","))
-                    .map(String::trim)
-                    .collect(Collectors.toList());
+        // Parse roles
+        List<String> roles = Arrays.stream(user.getRoles().split(","))
+                .map(String::trim)
+                .collect(Collectors.toList());
 
-            // Create response
-            AuthResponse authResponse = new AuthResponse(jwt, user.getUsername(), user.getEmail(), roles);
+        // Create response
+        AuthResponse authResponse = new AuthResponse(jwt, user.getUsername(), user.getEmail(), roles);
 
-            return ResponseEntity.ok(authResponse);
+        return ResponseEntity.ok(authResponse);
+    }
 
-        } catch (BadCredentialsException e) {
+    private ResponseEntity<?> createLoginFailureResponse(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof BadCredentialsException) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(createErrorResponse("Invalid username or password"));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(createErrorResponse("An error occurred during login"));
         }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("An error occurred during login"));
     }
 
     @PostMapping("/logout")
@@ -158,6 +189,16 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
 
+    private CompletableFuture<ResponseEntity<?>> badRequest(String message) {
+        return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(createErrorResponse(message)));
+    }
+
+    private ResponseEntity<?> busyResponse() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordHashingService.getRetryAfterSeconds()))
+                .body(createErrorResponse("Too many authentication requests, please retry shortly"));
+    }
+
     private Map<String, String> createErrorResponse(String message) {
         Map<String, String> response = new HashMap<>();
         response.put("error", message);
@@ -0,0 +1,137 @@
+package com.example.learning.controller;
+
+import com.example.learning.service.ChunkedUploadService;
+import com.example.learning.service.ChunkedUploadService.ChecksumMismatchException;
+import com.example.learning.service.ChunkedUploadService.OffsetMismatchException;
+import com.example.learning.service.ChunkedUploadService.UploadNotFoundException;
+import com.example.learning.service.ChunkedUploadService.UploadSession;
+import com.example.learning.service.ThumbnailService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resumable upload protocol for large attachments:
+ * <ol>
+ * <li>{@code POST /upload/chunks} with {@code {"filename", "size"}} starts a session</li>
+ * <li>{@code PUT /upload/chunks/{id}?offset=n} sends raw bytes, optionally with
+ * an {@code X-Chunk-SHA256} header; a wrong offset answers 409 with the committed one</li>
+ * <li>{@code GET /upload/chunks/{id}} reports the committed offset to resume from</li>
+ * <li>{@code POST /upload/chunks/{id}/complete} (optional {@code {"sha256"}}) returns
+ * the same attachment entry as {@code /upload/multiple}</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/upload/chunks")
+public class ChunkedUploadController {
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @PostMapping
+    public ResponseEntity<?> initiate(@RequestBody Map<String, Object> request) {
+        Object size = request.get("size");
+        if (!(size instanceof Number)) {
+            return ResponseEntity.badRequest().body(createErrorResponse("size is required"));
+        }
+        try {
+            UploadSession session = chunkedUploadService.initiate(
+                    (String) request.get("filename"), ((Number) size).longValue());
+            return ResponseEntity.status(HttpStatus.CREATED).body(createSessionResponse(session));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(createErrorResponse(ex.getMessage()));
+        } catch (IOException ex) {
+            return ResponseEntity.internalServerError().body(createErrorResponse("Could not start upload: " + ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable String id) throws IOException {
+        return chunkedUploadService.find(id)
+                .<ResponseEntity<?>>map(session -> ResponseEntity.ok(createSessionResponse(session)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(createErrorResponse("Upload session not found")));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<?> uploadChunk(@PathVariable String id, @RequestParam long offset,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String checksum,
+            HttpServletRequest request) {
+        try {
+            // Read the raw request body so the chunk goes straight to disk
+            long committed = chunkedUploadService.writeChunk(id, offset, request.getInputStream(), checksum);
+            Map<String, Object> response = new HashMap<>();
+            response.put("uploadId", id);
+            response.put("offset", committed);
+            return ResponseEntity.ok(response);
+        } catch (UploadNotFoundException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(ex.getMessage()));
+        } catch (OffsetMismatchException ex) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", ex.getMessage());
+            response.put("offset", ex.getCommittedOffset());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (ChecksumMismatchException | IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(createErrorResponse(ex.getMessage()));
+        } catch (IOException ex) {
+            // Whatever reached the disk before the connection broke stays committed
+            return ResponseEntity.internalServerError().body(createErrorResponse("Could not write chunk: " + ex.getMessage()));
+        }
+    }
+
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<?> complete(@PathVariable String id,
+            @RequestBody(required = false) Map<String, String> request) {
+        try {
+            String filename = chunkedUploadService.find(id).map(UploadSession::getFilename).orElse("unknown");
+            String storedName = chunkedUploadService.complete(id, request != null ? request.get("sha256") : null);
+
+            Map<String, String> previews = thumbnailService.submit(storedName);
+            return ResponseEntity.ok(FileUploadController.createAttachment(storedName, filename, previews));
+        } catch (UploadNotFoundException ex) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse(ex.getMessage()));
+        } catch (OffsetMismatchException ex) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("error", "Upload is incomplete");
+            response.put("offset", ex.getCommittedOffset());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        } catch (ChecksumMismatchException ex) {
+            return ResponseEntity.badRequest().body(createErrorResponse(ex.getMessage()));
+        } catch (IOException ex) {
+            return ResponseEntity.internalServerError().body(createErrorResponse("Could not complete upload: " + ex.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> abort(@PathVariable String id) throws IOException {
+        if (!chunkedUploadService.abort(id)) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(createErrorResponse("Upload session not found"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    private Map<String, Object> createSessionResponse(UploadSession session) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("uploadId", session.getId());
+        response.put("filename", session.getFilename());
+        response.put("size", session.getSize());
+        response.put("offset", session.getOffset());
+        response.put("maxChunkSize", chunkedUploadService.getMaxChunkSize());
+        return response;
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return response;
+    }
+}
@@ -1,100 +1,95 @@
 package com.example.learning.controller;
 
+import com.example.learning.service.AttachmentStorageService;
+import com.example.learning.service.ThumbnailService;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
 
 @RestController
 @RequestMapping("/upload")
 public class FileUploadController {
 
-    private final Path fileStorageLocation;
+    private static final Logger log = LoggerFactory.getLogger(FileUploadController.class);
+
+    private final AttachmentStorageService attachmentStorageService;
+    private final ThumbnailService thumbnailService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
-    public FileUploadController(@Value("${file.upload.path:uploads}") String uploadPath) {
-        this.fileStorageLocation = Paths.get(uploadPath).toAbsolutePath().normalize();
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-        } catch (Exception ex) {
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
-        }
+    public FileUploadController(AttachmentStorageService attachmentStorageService,
+            ThumbnailService thumbnailService) {
+        this.attachmentStorageService = attachmentStorageService;
+        this.thumbnailService = thumbnailService;
     }
 
+    // Plain-text download URL, for clients of the original API
     @PostMapping
     public ResponseEntity<String> uploadFile(@RequestParam("file") MultipartFile file) {
         try {
-            // Normalize file name
-            System.out.println("Uploading file: " + file.getOriginalFilename());
-            String originalFileName = file.getOriginalFilename();
-            String fileExtension = "";
-            if (originalFileName != null && originalFileName.contains(".")) {
-                fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-            }
-            String fileName = UUID.randomUUID().toString() + fileExtension;
-
-            // Copy file to the target location (Replacing existing file with the same name)
-            Path targetLocation = this.fileStorageLocation.resolve(fileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-            // Return the file download URI
-            String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                    .path("/uploads/")
-                    .path(fileName)
-                    .toUriString();
-
-            return ResponseEntity.ok(fileDownloadUri);
+            return ResponseEntity.ok((String) storeAttachment(file).get("url"));
         } catch (IOException ex) {
             return ResponseEntity.internalServerError().body("Could not upload file: " + ex.getMessage());
         }
     }
 
+    // Accept: application/json - the attachment entry {url, filename, previews?}, like /upload/multiple
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> uploadFileAsAttachment(@RequestParam("file") MultipartFile file) {
+        try {
+            return ResponseEntity.ok(storeAttachment(file));
+        } catch (IOException ex) {
+            Map<String, String> error = new HashMap<>();
+            error.put("error", "Could not upload file: " + ex.getMessage());
+            return ResponseEntity.internalServerError().body(error);
+        }
+    }
+
+    private Map<String, Object> storeAttachment(MultipartFile file) throws IOException {
+        log.debug("Uploading file: {}", file.getOriginalFilename());
+        String originalFileName = file.getOriginalFilename();
+
+        // Copy file to the upload directory (deduplicated in content-addressed mode)
+        String fileName = attachmentStorageService.store(file.getInputStream(), originalFileName);
+
+        // Previews are generated in the background; their URLs are known already
+        Map<String, String> previews = thumbnailService.submit(fileName);
+        return createAttachment(fileName, originalFileName != null ? originalFileName : "unknown", previews);
+    }
+
     @PostMapping("/multiple")
     public ResponseEntity<String> uploadMultipleFiles(
             @RequestParam(value = "files", required = false) MultipartFile[] files) {
         try {
 
-            List<Map<String, String>> attachments = new ArrayList<>();
+            List<Map<String, Object>> attachments = new ArrayList<>();
 
             if (files != null) {
                 for (MultipartFile file : files) {
                     if (!file.isEmpty()) {
                         // Normalize file name
                         String originalFileName = file.getOriginalFilename();
-                        String fileExtension = "";
-                        if (originalFileName != null && originalFileName.contains(".")) {
-                            fileExtension = originalFileName.substring(originalFileName.lastIndexOf("."));
-                        }
-                        String fileName = UUID.randomUUID().toString() + fileExtension;
-
-                        // Copy file to the target location
-                        Path targetLocation = this.fileStorageLocation.resolve(fileName);
-                        Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
-
-                        // Create download URI
-                        String fileDownloadUri = ServletUriComponentsBuilder.fromCurrentContextPath()
-                                .path("/uploads/")
-                                .path(fileName)
-                                .toUriString();
+
+                        // Copy file to the upload directory
+                        String fileName = attachmentStorageService.store(file.getInputStream(), originalFileName);
+
+                        // Previews are generated in the background; their URLs are known already
+                        Map<String, String> previews = thumbnailService.submit(fileName);
 
                         // Add to attachments list
-                        Map<String, String> attachment = new HashMap<>();
-                        attachment.put("url", fileDownloadUri);
-                        attachment.put("filename", originalFileName != null ? originalFileName : "unknown");
-                        attachments.add(attachment);
+                        attachments.add(createAttachment(fileName,
+                                originalFileName != null ? originalFileName : "unknown", previews));
                     }
                 }
             }
@@ -102,10 +97,43 @@ public class FileUploadController {
             // Return JSON array of attachments
             String jsonResponse = objectMapper.writeValueAsString(attachments);
             return ResponseEntity.ok()
-                    .contentType(org.springframework.http.MediaType.APPLICATION_JSON)
+                    .contentType(MediaType.APPLICATION_JSON)
                     .body(jsonResponse);
         } catch (Exception ex) {
             return ResponseEntity.internalServerError().body("Could not upload files: " + ex.getMessage());
         }
     }
+
+    /**
+     * Content-addressed mode only: lets a client that hashed a file itself
+     * attach existing content without uploading it again. 404 means upload it.
+     */
+    @GetMapping("/digest/{sha256}")
+    public ResponseEntity<?> findByDigest(@PathVariable String sha256,
+            @RequestParam(value = "filename", required = false) String filename) {
+        return attachmentStorageService.findByDigest(sha256, filename)
+                .<ResponseEntity<?>>map(fileName -> ResponseEntity.ok(createAttachment(fileName,
+                        filename != null ? filename : fileName, thumbnailService.variantNames(fileName))))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Attachment entry as stored in Learning.attachments: {url, filename, previews?}
+    static Map<String, Object> createAttachment(String fileName, String displayName, Map<String, String> previews) {
+        Map<String, Object> attachment = new HashMap<>();
+        attachment.put("url", toDownloadUri(fileName));
+        attachment.put("filename", displayName);
+        if (!previews.isEmpty()) {
+            Map<String, String> previewUris = new LinkedHashMap<>();
+            previews.forEach((key, variant) -> previewUris.put(key, toDownloadUri(variant)));
+            attachment.put("previews", previewUris);
+        }
+        return attachment;
+    }
+
+    private static String toDownloadUri(String fileName) {
+        return ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/uploads/")
+                .path(fileName)
+                .toUriString();
+    }
 }
@@ -1,44 +1,267 @@
 package com.example.learning.controller;
 
+import com.example.learning.config.ReplicaRoutingDataSource;
+import com.example.learning.dto.LearningBatchRequest;
+import com.example.learning.dto.LearningCursor;
+import com.example.learning.dto.LearningSummary;
 import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningCountEstimator;
 import com.example.learning.repository.LearningRepository;
+import com.example.learning.search.LearningSearchService;
+import com.example.learning.service.CustomPropertyQueryService;
+import com.example.learning.service.FacetService;
+import com.example.learning.service.LearningBatchService;
+import com.example.learning.service.LearningExportService;
+import com.example.learning.service.LearningResponseCache;
+import com.example.learning.service.LearningValidator;
+import com.example.learning.service.TagService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/learnings")
 public class LearningController {
 
+    private static final Logger log = LoggerFactory.getLogger(LearningController.class);
+
+    private static final List<String> COUNT_MODES = List.of("exact", "estimated", "none");
+    private static final List<String> TAG_MATCH_MODES = List.of("all", "any");
+    private static final List<String> VIEWS = List.of("full", "summary");
+
     @Autowired
     private LearningRepository learningRepository;
 
+    @Autowired
+    private LearningSearchService learningSearchService;
+
+    @Autowired
+    private LearningCountEstimator learningCountEstimator;
+
+    @Autowired
+    private LearningExportService learningExportService;
+
+    @Autowired
+    private FacetService facetService;
+
+    @Autowired
+    private CustomPropertyQueryService customPropertyQueryService;
+
+    @Autowired
+    private LearningValidator learningValidator;
+
+    @Autowired
+    private LearningBatchService learningBatchService;
+
+    @Autowired
+    private LearningResponseCache learningResponseCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getAllLearnings(
+    public ResponseEntity<?> getAllLearnings(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String search) {
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "exact") String count,
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "all") String tagMatch,
+            @RequestParam(defaultValue = "full") String view,
+            @RequestParam Map<String, String> params,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            Authentication authentication,
+            HttpServletRequest request) {
+
+        log.debug("GET /learnings page={} size={} search={}", page, size, search);
+        // Pages only change with the data version: revalidations need no query at all
+        long version = learningResponseCache.getVersion();
+        String etag = learningResponseCache.etag(version);
+        CacheControl cacheControl = CacheControl.noCache().cachePrivate();
+        if (learningResponseCache.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        String key = LearningResponseCache.key(authentication, request.getParameterMap());
+        byte[] body = learningResponseCache.get(key, version);
+        if (body == null) {
+            ResponseEntity<Map<String, Object>> response = findLearnings(page, size, search, after, count,
+                    tags, tagMatch, view, params);
+            if (!response.getStatusCode().is2xxSuccessful()) {
+                return response;
+            }
+            if (request.getAttribute(ReplicaRoutingDataSource.REPLICA_READ_ATTRIBUTE) != null) {
+                // The replica may not have reached this version yet: neither cache nor tag the page
+                return ResponseEntity.ok().cacheControl(cacheControl).contentType(MediaType.APPLICATION_JSON)
+                        .body(learningResponseCache.serialize(response.getBody()));
+            }
+            body = learningResponseCache.put(key, version, response.getBody());
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    private ResponseEntity<Map<String, Object>> findLearnings(int page, int size, String search, String after,
+            String count, List<String> tags, String tagMatch, String view, Map<String, String> params) {
+        boolean hasSearch = search != null && !search.trim().isEmpty();
+        if (!COUNT_MODES.contains(count)) {
+            return ResponseEntity.badRequest().body(createErrorResponse("count must be one of " + COUNT_MODES));
+        }
+        if (!VIEWS.contains(view)) {
+            return ResponseEntity.badRequest().body(createErrorResponse("view must be one of " + VIEWS));
+        }
+        // summary: list columns and a description snippet instead of the CLOB columns
+        boolean summary = view.equals("summary");
+        if (!TAG_MATCH_MODES.contains(tagMatch)) {
+            return ResponseEntity.badRequest().body(createErrorResponse("tagMatch must be one of " + TAG_MATCH_MODES));
+        }
+        Set<String> tagNames = tags != null ? TagService.parseTags(tags) : Set.of();
+        Map<String, String> properties = customPropertyFilters(params);
+        if ((!tagNames.isEmpty() || !properties.isEmpty()) && (hasSearch || after != null)) {
+            return ResponseEntity.badRequest().body(createErrorResponse(
+                    "Tag and property filters are not supported together with search or cursor pagination"));
+        }
+        if (!tagNames.isEmpty() && !properties.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(createErrorResponse("Tag and property filters cannot be combined"));
+        }
+        // Filters and search always count their matches; only the unfiltered list can skip it
+        if ((!tagNames.isEmpty() || !properties.isEmpty() || hasSearch) && after == null && !count.equals("exact")) {
+            return ResponseEntity.badRequest().body(createErrorResponse(
+                    "count=" + count + " is not supported together with tag or property filters or search"));
+        }
+
+        // Cursor (keyset) mode: ?after= for the first page, then ?after=<nextCursor>
+        if (after != null) {
+            if (hasSearch) {
+                return ResponseEntity.badRequest()
+                        .body(createErrorResponse("Cursor pagination is not supported together with search"));
+            }
+            try {
+                return ResponseEntity.ok(getKeysetPage(after, size, count, summary));
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(createErrorResponse(ex.getMessage()));
+            }
+        }
 
-        System.out.println("Received request for /learnings");
         Pageable pageable = PageRequest.of(page, size);
-        Page<Learning> learningPage;
+        Map<String, Object> response = new HashMap<>();
 
-        if (search != null && !search.trim().isEmpty()) {
-            // Search across all records, then paginate results
-            learningPage = learningRepository.findBySearchTerm(search.trim(), pageable);
-        } else {
+        if (!tagNames.isEmpty()) {
+            // ?tags=java,spring&tagMatch=all|any: exact, case-insensitive tag matches via learning_tag
+            putPage(response, toView(tagMatch.equals("any")
+                    ? learningRepository.findByAnyTag(tagNames, pageable)
+                    : learningRepository.findByAllTags(tagNames, tagNames.size(), pageable), summary));
+            response.put("tags", tagNames);
+        } else if (!properties.isEmpty()) {
+            // ?prop.difficulty=hard: exact matches on customProperties (jsonb containment on PostgreSQL)
+            putPage(response, toView(customPropertyQueryService.findByProperties(properties, pageable), summary));
+            response.put("properties", properties);
+        } else if (hasSearch) {
+            // Full-text search across all records, ranked by relevance, then paginated
+            putPage(response, toView(learningSearchService.search(search.trim(), pageable), summary));
+        } else if (count.equals("exact")) {
             // No search - return all records with pagination
-            learningPage = learningRepository.findAll(pageable);
+            putPage(response, summary ? learningRepository.findSummaries(pageable) : learningRepository.findAll(pageable));
+        } else {
+            // Skip the count(*) query; optionally report the catalog estimate instead
+            Slice<?> learningSlice = summary
+                    ? learningRepository.findSummarySlice(pageable)
+                    : learningRepository.findSliceBy(pageable);
+            response.put("learnings", learningSlice.getContent());
+            response.put("currentPage", learningSlice.getNumber());
+            response.put("pageSize", learningSlice.getSize());
+            response.put("hasNext", learningSlice.hasNext());
+            response.put("hasPrevious", learningSlice.hasPrevious());
+            if (count.equals("estimated")) {
+                long estimate = learningCountEstimator.estimateCount();
+                response.put("totalItems", estimate);
+                response.put("totalPages", (int) Math.ceil((double) estimate / size));
+                response.put("totalItemsEstimated", true);
+            }
         }
+        response.put("searchTerm", search); // Include search term in response
+
+        return ResponseEntity.ok(response);
+    }
+
+    // prop.<key>=<value> request parameters, in request order
+    private static Map<String, String> customPropertyFilters(Map<String, String> params) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        params.forEach((name, value) -> {
+            if (name.startsWith(CustomPropertyQueryService.PARAM_PREFIX)
+                    && name.length() > CustomPropertyQueryService.PARAM_PREFIX.length()) {
+                properties.put(name.substring(CustomPropertyQueryService.PARAM_PREFIX.length()), value);
+            }
+        });
+        return properties;
+    }
+
+    private Map<String, Object> getKeysetPage(String after, int size, String count, boolean summary) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Page size must not be less than one");
+        }
+        // Fetch one extra row to learn whether another page exists
+        Limit limit = Limit.of(size + 1);
+        List<Learning> rows;
+        if (after.isEmpty()) {
+            rows = learningRepository.findKeysetFirstPage(limit);
+        } else {
+            LearningCursor cursor = LearningCursor.decode(after);
+            rows = cursor.getDate() == null
+                    ? learningRepository.findKeysetPageAfterUndated(cursor.getId(), limit)
+                    : learningRepository.findKeysetPageAfter(cursor.getDate(), cursor.getId(), limit);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<Learning> learnings = hasNext ? rows.subList(0, size) : rows;
 
         Map<String, Object> response = new HashMap<>();
+        response.put("learnings", summary ? learnings.stream().map(LearningSummary::of).toList() : learnings);
+        response.put("pageSize", size);
+        response.put("hasNext", hasNext);
+        response.put("nextCursor", hasNext ? LearningCursor.of(learnings.get(size - 1)).encode() : null);
+        if (count.equals("exact")) {
+            response.put("totalItems", learningRepository.count());
+        } else if (count.equals("estimated")) {
+            response.put("totalItems", learningCountEstimator.estimateCount());
+            response.put("totalItemsEstimated", true);
+        }
+        return response;
+    }
+
+    // Filters and search load entities; summary then only trims the response
+    private static Page<?> toView(Page<Learning> learningPage, boolean summary) {
+        return summary ? learningPage.map(LearningSummary::of) : learningPage;
+    }
+
+    private void putPage(Map<String, Object> response, Page<?> learningPage) {
         response.put("learnings", learningPage.getContent());
         response.put("currentPage", learningPage.getNumber());
         response.put("totalItems", learningPage.getTotalElements());
@@ -46,25 +269,117 @@ public class LearningController {
         response.put("pageSize", learningPage.getSize());
         response.put("hasNext", learningPage.hasNext());
         response.put("hasPrevious", learningPage.hasPrevious());
-        response.put("searchTerm", search); // Include search term in response
+    }
 
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(
+            @RequestParam(required = false) String search,
+            @RequestParam(defaultValue = "50") int tagLimit) {
+        // {"categories": {"Job": 1203, ...}, "tags": {...}, "months": {"2024-05": 12, ...}}
+        Map<String, Object> response = facetService.getFacets(search, tagLimit);
+        response.put("searchTerm", search);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping("/all")
-    public List<Learning> getAllLearningsWithoutPagination() {
-        return learningRepository.findAll();
+    public void getAllLearningsWithoutPagination(HttpServletResponse response) throws IOException {
+        // Same JSON array as before, but streamed row by row instead of loading the whole table
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        learningExportService.export(response.getOutputStream(), LearningExportService.Format.JSON);
+    }
+
+    @GetMapping("/export")
+    public void exportLearnings(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) throws IOException {
+
+        LearningExportService.Format exportFormat;
+        if (format.equalsIgnoreCase("ndjson")) {
+            exportFormat = LearningExportService.Format.NDJSON;
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        } else if (format.equalsIgnoreCase("json")) {
+            exportFormat = LearningExportService.Format.JSON;
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        } else {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "format must be ndjson or json");
+            return;
+        }
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"learnings." + format.toLowerCase() + "\"");
+
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            try (GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192)) {
+                learningExportService.export(out, exportFormat);
+            }
+        } else {
+            learningExportService.export(response.getOutputStream(), exportFormat);
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<Learning> getLearning(@PathVariable Long id) {
+        return learningRepository.findById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
-    public Learning createLearning(@RequestBody Learning learning) {
-        return learningRepository.save(learning);
+    public ResponseEntity<?> createLearning(@RequestBody Learning learning) {
+        String invalid = learningValidator.validate(learning);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(createErrorResponse(invalid));
+        }
+        Learning saved = learningRepository.save(learning);
+        eventPublisher.publishEvent(LearningChangedEvent.created(saved));
+        return ResponseEntity.ok(saved);
     }
 
+    /**
+     * Creates, updates and deletes many learnings in one transaction, e.g. for imports.
+     * atomic=true (default): any invalid item rejects the whole batch with 400.
+     * atomic=false: invalid items are reported in "errors", the rest is written.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Map<String, Object>> batchLearnings(
+            @RequestBody LearningBatchRequest request,
+            @RequestParam(defaultValue = "true") boolean atomic,
+            Authentication authentication) {
+        if (request.size() > learningBatchService.getMaxItems()) {
+            return ResponseEntity.badRequest().body(createErrorResponse(
+                    "A batch may contain at most " + learningBatchService.getMaxItems() + " items"));
+        }
+        // Same rule as DELETE /learnings/{id}
+        if (!request.getDelete().isEmpty() && authentication.getAuthorities().stream()
+                .noneMatch(authority -> authority.getAuthority().equals("ROLE_ADMIN"))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(createErrorResponse("Deleting learnings requires the ADMIN role"));
+        }
+
+        LearningBatchService.Result result = learningBatchService.apply(request, atomic);
+        Map<String, Object> response = new HashMap<>();
+        response.put("applied", result.isApplied());
+        response.put("created", result.getCreated());
+        response.put("updated", result.getUpdated());
+        response.put("deleted", result.getDeleted());
+        response.put("errors", result.getErrors());
+        return result.isApplied() ? ResponseEntity.ok(response) : ResponseEntity.badRequest().body(response);
+    }
+
+    // Read-write, so the row is read from the primary: a replica could return a stale or missing one
     @PutMapping("/{id}")
-    public ResponseEntity<Learning> updateLearning(@PathVariable Long id, @RequestBody Learning learningDetails) {
+    @Transactional
+    public ResponseEntity<?> updateLearning(@PathVariable Long id, @RequestBody Learning learningDetails) {
+        String invalid = learningValidator.validate(learningDetails);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(createErrorResponse(invalid));
+        }
         return learningRepository.findById(id)
                 .map(learning -> {
+                    Learning before = LearningChangedEvent.snapshot(learning);
                     learning.setTitle(learningDetails.getTitle());
                     learning.setDescription(learningDetails.getDescription());
                     learning.setCategory(learningDetails.getCategory());
@@ -72,19 +387,29 @@ public class LearningController {
                     learning.setTags(learningDetails.getTags());
                     learning.setAttachments(learningDetails.getAttachments());
                     learning.setCustomProperties(learningDetails.getCustomProperties());
-                    return ResponseEntity.ok(learningRepository.save(learning));
+                    Learning saved = learningRepository.save(learning);
+                    eventPublisher.publishEvent(LearningChangedEvent.updated(before, saved));
+                    return ResponseEntity.<Learning>ok(saved);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @DeleteMapping("/{id}")
     @org.springframework.security.access.prepost.PreAuthorize("hasRole('ADMIN')")
+    @Transactional
     public ResponseEntity<Void> deleteLearning(@PathVariable Long id) {
         return learningRepository.findById(id)
                 .map(learning -> {
                     learningRepository.delete(learning);
+                    eventPublisher.publishEvent(LearningChangedEvent.deleted(learning));
                     return ResponseEntity.ok().<Void>build();
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+
+    private Map<String, Object> createErrorResponse(String message) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("error", message);
+        return response;
+    }
 }
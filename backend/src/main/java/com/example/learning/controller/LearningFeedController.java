@@ -0,0 +1,44 @@
+package com.example.learning.controller;
+
+import com.example.learning.service.LearningChangeFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * {@code GET /learnings/changes}: Server-Sent Events stream of created, updated
+ * and deleted learnings, so open clients apply deltas instead of polling.
+ * Reconnects send {@code Last-Event-ID} to receive what they missed.
+ */
+@RestController
+@RequestMapping("/learnings/changes")
+public class LearningFeedController {
+
+    @Autowired
+    private LearningChangeFeed learningChangeFeed;
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        try {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                    // Keep reverse proxies from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(learningChangeFeed.subscribe(lastEventId));
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .build();
+        }
+    }
+}
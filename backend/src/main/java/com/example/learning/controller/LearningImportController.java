@@ -0,0 +1,121 @@
+package com.example.learning.controller;
+
+import com.example.learning.entity.ImportJob;
+import com.example.learning.service.LearningImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Bulk import of learnings from a CSV or NDJSON file:
+ * <ol>
+ * <li>{@code POST /learnings/import?format=csv|ndjson} with the raw file as body
+ * (format defaults from the Content-Type) answers 202 with the job</li>
+ * <li>{@code GET /learnings/import/{id}} reports status and progress</li>
+ * <li>{@code POST /learnings/import/{id}/resume} continues a failed job after its
+ * last committed batch</li>
+ * </ol>
+ */
+@RestController
+@RequestMapping("/learnings/import")
+public class LearningImportController {
+
+    @Autowired
+    private LearningImportService learningImportService;
+
+    @PostMapping
+    public ResponseEntity<?> start(@RequestParam(required = false) String format,
+            @RequestParam(required = false) String filename,
+            HttpServletRequest request) {
+        String resolved = format != null ? format.toLowerCase(Locale.ROOT) : formatOf(request.getContentType());
+        if (!LearningImportService.isSupportedFormat(resolved)) {
+            return ResponseEntity.badRequest().body(createErrorResponse("format must be csv or ndjson"));
+        }
+        try {
+            // Read the raw request body so the file goes straight to disk
+            ImportJob job = learningImportService.start(resolved, filename, request.getInputStream());
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, request.getContextPath() + "/learnings/import/" + job.getId())
+                    .body(createJobResponse(job));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(createErrorResponse(ex.getMessage()));
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(createErrorResponse("Too many imports queued, try again later"));
+        } catch (IOException ex) {
+            return ResponseEntity.internalServerError().body(createErrorResponse("Could not store import: " + ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable String id) {
+        return learningImportService.find(id)
+                .<ResponseEntity<?>>map(job -> ResponseEntity.ok(createJobResponse(job)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(createErrorResponse("Import not found")));
+    }
+
+    @PostMapping("/{id}/resume")
+    public ResponseEntity<?> resume(@PathVariable String id) {
+        try {
+            return learningImportService.resume(id)
+                    .<ResponseEntity<?>>map(job -> ResponseEntity.status(HttpStatus.ACCEPTED).body(createJobResponse(job)))
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                            .body(createErrorResponse("Import not found")));
+        } catch (IllegalStateException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(createErrorResponse(ex.getMessage()));
+        } catch (RejectedExecutionException ex) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "60")
+                    .body(createErrorResponse("Too many imports queued, try again later"));
+        }
+    }
+
+    private static String formatOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        if (contentType.startsWith("text/csv")) {
+            return "csv";
+        }
+        if (contentType.startsWith("application/x-ndjson") || contentType.startsWith("application/jsonl")) {
+            return "ndjson";
+        }
+        return null;
+    }
+
+    private Map<String, Object> createJobResponse(ImportJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", job.getId());
+        response.put("format", job.getFormat());
+        response.put("filename", job.getFilename());
+        response.put("status", job.getStatus().name());
+        response.put("bytesTotal", job.getBytesTotal());
+        response.put("bytesRead", job.getBytesRead());
+        response.put("rowsRead", job.getRowsRead());
+        response.put("rowsImported", job.getRowsImported());
+        response.put("rowsFailed", job.getRowsFailed());
+        if (job.getLastError() != null) {
+            response.put("lastError", job.getLastError());
+        }
+        response.put("createdAt", job.getCreatedAt());
+        response.put("updatedAt", job.getUpdatedAt());
+        return response;
+    }
+
+    private Map<String, String> createErrorResponse(String message) {
+        Map<String, String> response = new HashMap<>();
+        response.put("error", message);
+        return response;
+    }
+}
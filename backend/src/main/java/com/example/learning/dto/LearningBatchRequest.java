@@ -0,0 +1,47 @@
+package com.example.learning.dto;
+
+import com.example.learning.entity.Learning;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Body of POST /learnings/batch: learnings to create, learnings (with id) to
+ * update and ids to delete.
+ */
+public class LearningBatchRequest {
+    private List<Learning> create = new ArrayList<>();
+    private List<Learning> update = new ArrayList<>();
+    private List<Long> delete = new ArrayList<>();
+
+    public LearningBatchRequest() {
+    }
+
+    public List<Learning> getCreate() {
+        return create;
+    }
+
+    public void setCreate(List<Learning> create) {
+        this.create = create != null ? create : new ArrayList<>();
+    }
+
+    public List<Learning> getUpdate() {
+        return update;
+    }
+
+    public void setUpdate(List<Learning> update) {
+        this.update = update != null ? update : new ArrayList<>();
+    }
+
+    public List<Long> getDelete() {
+        return delete;
+    }
+
+    public void setDelete(List<Long> delete) {
+        this.delete = delete != null ? delete : new ArrayList<>();
+    }
+
+    public int size() {
+        return create.size() + update.size() + delete.size();
+    }
+}
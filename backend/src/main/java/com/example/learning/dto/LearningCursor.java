@@ -0,0 +1,55 @@
+package com.example.learning.dto;
+
+import com.example.learning.entity.Learning;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor over (date, id), the sort order of
+ * GET /learnings?after=... Encoded as url-safe base64 of "date|id".
+ */
+public class LearningCursor {
+    private final LocalDate date;
+    private final long id;
+
+    public LearningCursor(LocalDate date, long id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public static LearningCursor of(Learning learning) {
+        return new LearningCursor(learning.getDate(), learning.getId());
+    }
+
+    public static LearningCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String datePart = raw.substring(0, separator);
+            LocalDate date = datePart.isEmpty() ? null : LocalDate.parse(datePart);
+            return new LearningCursor(date, Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException ex) {
+            // NumberFormatException is an IllegalArgumentException as well
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+
+    public String encode() {
+        String raw = (date != null ? date.toString() : "") + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
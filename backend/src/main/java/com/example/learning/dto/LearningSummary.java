@@ -0,0 +1,99 @@
+package com.example.learning.dto;
+
+import com.example.learning.entity.Learning;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.regex.Pattern;
+
+/**
+ * List view of a learning (GET /learnings?view=summary): the light columns and a
+ * plain text snippet of the description instead of the description, attachments
+ * and customProperties CLOBs. Built by a JPQL constructor expression that only
+ * reads the first {@link #RAW_SNIPPET_LENGTH} characters of the description.
+ * descriptionSnippet is always serialized, even when null: clients tell a
+ * summary from a full learning by that key.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LearningSummary {
+
+    // Read from the database; leaves room for markup that is stripped below
+    public static final int RAW_SNIPPET_LENGTH = 500;
+    static final int SNIPPET_LENGTH = 200;
+
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern OPEN_TAG_AT_END = Pattern.compile("<[^>]*$");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final Long id;
+    private final String title;
+    private final String category;
+    private final LocalDate date;
+    private final String tags;
+    private final String descriptionSnippet;
+
+    public LearningSummary(Long id, String title, String category, LocalDate date, String tags,
+            String descriptionStart) {
+        this.id = id;
+        this.title = title;
+        this.category = category;
+        this.date = date;
+        this.tags = tags;
+        this.descriptionSnippet = snippet(descriptionStart);
+    }
+
+    public static LearningSummary of(Learning learning) {
+        String description = learning.getDescription();
+        if (description != null && description.length() > RAW_SNIPPET_LENGTH) {
+            description = description.substring(0, RAW_SNIPPET_LENGTH);
+        }
+        return new LearningSummary(learning.getId(), learning.getTitle(), learning.getCategory(),
+                learning.getDate(), learning.getTags(), description);
+    }
+
+    // The description is rich text HTML: drop tags (and one cut off at the end), collapse whitespace
+    static String snippet(String html) {
+        if (html == null) {
+            return null;
+        }
+        boolean cut = html.length() >= RAW_SNIPPET_LENGTH;
+        String text = TAG.matcher(html).replaceAll(" ");
+        text = OPEN_TAG_AT_END.matcher(text).replaceAll("");
+        text = WHITESPACE.matcher(text
+                .replace("&nbsp;", " ")
+                .replace("&lt;", "<")
+                .replace("&gt;", ">")
+                .replace("&quot;", "\"")
+                .replace("&#39;", "'")
+                .replace("&amp;", "&")).replaceAll(" ").trim();
+        if (text.length() > SNIPPET_LENGTH) {
+            return text.substring(0, SNIPPET_LENGTH).trim() + "…";
+        }
+        return cut ? text + "…" : text;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getTags() {
+        return tags;
+    }
+
+    @JsonInclude(JsonInclude.Include.ALWAYS)
+    public String getDescriptionSnippet() {
+        return descriptionSnippet;
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.learning.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Reference count of a content-addressed upload: how many learnings list the
+ * stored file in their attachments JSON.
+ */
+@Entity
+@Table(name = "attachment_ref")
+public class AttachmentRef {
+    @Id
+    @Column(length = 100)
+    private String filename; // <sha256><ext> as stored under file.upload.path
+
+    @Column(nullable = false)
+    private long refCount;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public AttachmentRef() {
+    }
+
+    public AttachmentRef(String filename, long refCount) {
+        this.filename = filename;
+        this.refCount = refCount;
+    }
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public long getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(long refCount) {
+        this.refCount = refCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
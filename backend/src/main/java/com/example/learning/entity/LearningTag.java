@@ -0,0 +1,69 @@
+package com.example.learning.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Row of the learning_tag join table. Mapped with plain ids rather than
+ * associations: it is only written by TagService and read in tag filter
+ * subqueries, never navigated from Learning.
+ */
+@Entity
+@Table(name = "learning_tag", indexes = @Index(name = "idx_learning_tag_tag", columnList = "tag_id, learning_id"))
+@IdClass(LearningTag.Key.class)
+public class LearningTag {
+    @Id
+    @Column(name = "learning_id")
+    private Long learningId;
+
+    @Id
+    @Column(name = "tag_id")
+    private Long tagId;
+
+    public LearningTag() {
+    }
+
+    public LearningTag(Long learningId, Long tagId) {
+        this.learningId = learningId;
+        this.tagId = tagId;
+    }
+
+    public Long getLearningId() {
+        return learningId;
+    }
+
+    public Long getTagId() {
+        return tagId;
+    }
+
+    public static class Key implements Serializable {
+        private Long learningId;
+        private Long tagId;
+
+        public Key() {
+        }
+
+        public Key(Long learningId, Long tagId) {
+            this.learningId = learningId;
+            this.tagId = tagId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key key)) {
+                return false;
+            }
+            return Objects.equals(learningId, key.learningId) && Objects.equals(tagId, key.tagId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(learningId, tagId);
+        }
+    }
+}
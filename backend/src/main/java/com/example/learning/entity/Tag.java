@@ -0,0 +1,38 @@
+package com.example.learning.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A normalized tag name (trimmed, lower case). Learnings reference tags
+ * through learning_tag; the comma separated Learning.tags column stays the
+ * source of truth and TagService keeps the join table in step with it.
+ */
+@Entity
+@Table(name = "tag")
+public class Tag {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    public Tag() {
+    }
+
+    public Tag(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.learning.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@EntityListeners(UserEntityListener.class)
 public class User {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -28,11 +32,23 @@ public class User {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    // Username as loaded, so a rename also evicts the principal cached under the old name
+    @Transient
+    private String loadedUsername;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
     }
 
+    String getLoadedUsername() {
+        return loadedUsername;
+    }
+
+    void setLoadedUsername(String loadedUsername) {
+        this.loadedUsername = loadedUsername;
+    }
+
     // Getters and Setters
     public Long getId() {
         return id;
@@ -0,0 +1,68 @@
+package com.example.learning.entity;
+
+import com.example.learning.cache.SecondLevelCacheInvalidator;
+import com.example.learning.security.PrincipalCache;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Drops cached principals whenever a user row changes, so role changes and
+ * disabled accounts take effect on the next request - here and, through the
+ * cache invalidation bus, on the other instances.
+ * <p>
+ * Eviction waits for the commit: evicting earlier would let a concurrent
+ * request cache the old, still committed row again for the whole TTL.
+ */
+public class UserEntityListener {
+
+    private final ObjectProvider<PrincipalCache> principalCache;
+    private final ObjectProvider<SecondLevelCacheInvalidator> cacheInvalidator;
+
+    // Instantiated by Hibernate through Spring's bean container
+    public UserEntityListener(ObjectProvider<PrincipalCache> principalCache,
+            ObjectProvider<SecondLevelCacheInvalidator> cacheInvalidator) {
+        this.principalCache = principalCache;
+        this.cacheInvalidator = cacheInvalidator;
+    }
+
+    @PostLoad
+    @PostPersist
+    public void onUserLoaded(User user) {
+        user.setLoadedUsername(user.getUsername());
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onUserChanged(User user) {
+        Set<String> usernames = new LinkedHashSet<>();
+        if (user.getLoadedUsername() != null) {
+            usernames.add(user.getLoadedUsername());
+        }
+        usernames.add(user.getUsername());
+        user.setLoadedUsername(user.getUsername());
+
+        Long id = user.getId();
+        Runnable evict = () -> usernames.forEach(username -> {
+            principalCache.ifAvailable(cache -> cache.evict(username));
+            cacheInvalidator.ifAvailable(invalidator -> invalidator.onUserChanged(id, username));
+        });
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+}
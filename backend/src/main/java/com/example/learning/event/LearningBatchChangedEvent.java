@@ -0,0 +1,22 @@
+package com.example.learning.event;
+
+import java.util.List;
+
+/**
+ * Published once for a batch write (POST /learnings/batch, an import batch)
+ * instead of a LearningChangedEvent per learning. The learning_tag rows and
+ * attachment ref counts are already reconciled in the batch's transaction;
+ * listeners of derived state apply all changes in one go after the commit.
+ */
+public class LearningBatchChangedEvent {
+
+    private final List<LearningChangedEvent> changes;
+
+    public LearningBatchChangedEvent(List<LearningChangedEvent> changes) {
+        this.changes = List.copyOf(changes);
+    }
+
+    public List<LearningChangedEvent> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.learning.event;
+
+import com.example.learning.entity.Learning;
+
+/**
+ * Published after a learning is created, updated or deleted.
+ * Carries the state before and after the change so listeners can
+ * maintain derived data (indexes, counters, caches) incrementally.
+ * Batch writes publish one {@link LearningBatchChangedEvent} instead.
+ */
+public class LearningChangedEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    private final Type type;
+    private final Long learningId;
+    private final Learning before;
+    private final Learning after;
+
+    public LearningChangedEvent(Type type, Long learningId, Learning before, Learning after) {
+        this.type = type;
+        this.learningId = learningId;
+        this.before = before;
+        this.after = after;
+    }
+
+    public static LearningChangedEvent created(Learning learning) {
+        return new LearningChangedEvent(Type.CREATED, learning.getId(), null, snapshot(learning));
+    }
+
+    public static LearningChangedEvent updated(Learning before, Learning after) {
+        return new LearningChangedEvent(Type.UPDATED, after.getId(), before, snapshot(after));
+    }
+
+    public static LearningChangedEvent deleted(Learning learning) {
+        return new LearningChangedEvent(Type.DELETED, learning.getId(), snapshot(learning), null);
+    }
+
+    // Detached copy, so later changes to a managed entity don't leak into the event
+    public static Learning snapshot(Learning learning) {
+        Learning copy = new Learning();
+        copy.setId(learning.getId());
+        copy.setTitle(learning.getTitle());
+        copy.setDescription(learning.getDescription());
+        copy.setCategory(learning.getCategory());
+        copy.setDate(learning.getDate());
+        copy.setTags(learning.getTags());
+        copy.setAttachments(learning.getAttachments());
+        copy.setCustomProperties(learning.getCustomProperties());
+        return copy;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getLearningId() {
+        return learningId;
+    }
+
+    public Learning getBefore() {
+        return before;
+    }
+
+    public Learning getAfter() {
+        return after;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.learning.repository;
+
+import com.example.learning.entity.AttachmentRef;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+@Repository
+public interface AttachmentRefRepository extends JpaRepository<AttachmentRef, String> {
+
+    // Atomic in the database, so concurrent saves of different learnings don't lose counts
+    @Transactional
+    @Modifying
+    @Query("UPDATE AttachmentRef a SET a.refCount = a.refCount + :delta WHERE a.filename = :filename")
+    int adjustRefCount(@Param("filename") String filename, @Param("delta") long delta);
+
+    // A plain INSERT: save() would merge and could reset a row created concurrently
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO attachment_ref (filename, ref_count, created_at) VALUES (:filename, 0, CURRENT_TIMESTAMP)",
+           nativeQuery = true)
+    int insertZeroRefCount(@Param("filename") String filename);
+}
@@ -0,0 +1,37 @@
+package com.example.learning.repository;
+
+import com.example.learning.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+
+    List<ImportJob> findByStatusIn(Collection<ImportJob.Status> statuses);
+
+    // Status changes never touch the counters, which only recordProgress writes
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.status = :status, j.lastError = COALESCE(:lastError, j.lastError), " +
+           "j.updatedAt = :now WHERE j.id = :id")
+    int updateStatus(@Param("id") String id, @Param("status") ImportJob.Status status,
+                     @Param("lastError") String lastError, @Param("now") LocalDateTime now);
+
+    // Runs in the transaction of the batch it describes, so progress and rows commit together
+    @Transactional
+    @Modifying
+    @Query("UPDATE ImportJob j SET j.rowsRead = :rowsRead, j.bytesRead = :bytesRead, " +
+           "j.rowsImported = j.rowsImported + :imported, j.rowsFailed = j.rowsFailed + :failed, " +
+           "j.lastError = COALESCE(:lastError, j.lastError), j.updatedAt = :now WHERE j.id = :id")
+    int recordProgress(@Param("id") String id, @Param("rowsRead") long rowsRead, @Param("bytesRead") long bytesRead,
+                       @Param("imported") long imported, @Param("failed") long failed,
+                       @Param("lastError") String lastError, @Param("now") LocalDateTime now);
+}
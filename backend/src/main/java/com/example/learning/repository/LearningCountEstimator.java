@@ -0,0 +1,48 @@
+package com.example.learning.repository;
+
+import com.example.learning.config.DatabasePlatform;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Cheap row count estimate for the learning table, read from the database
+ * catalog instead of running count(*). Falls back to an exact count when the
+ * catalog has no estimate yet (e.g. a table PostgreSQL never analyzed).
+ */
+@Repository
+public class LearningCountEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabasePlatform databasePlatform;
+    private final LearningRepository learningRepository;
+
+    public LearningCountEstimator(JdbcTemplate jdbcTemplate, DatabasePlatform databasePlatform,
+            LearningRepository learningRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databasePlatform = databasePlatform;
+        this.learningRepository = learningRepository;
+    }
+
+    public long estimateCount() {
+        Long estimate = null;
+        try {
+            if (databasePlatform.isPostgres()) {
+                // regclass resolves the name through the search_path, like the application's own queries
+                estimate = jdbcTemplate.queryForObject(
+                        "SELECT reltuples::bigint FROM pg_class WHERE oid = 'learning'::regclass", Long.class);
+            } else if (databasePlatform.isH2()) {
+                estimate = jdbcTemplate.queryForObject(
+                        "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES " +
+                        "WHERE TABLE_SCHEMA = SCHEMA() AND TABLE_NAME = 'LEARNING'",
+                        Long.class);
+            }
+        } catch (DataAccessException ex) {
+            estimate = null;
+        }
+        if (estimate == null || estimate < 0) {
+            return learningRepository.count();
+        }
+        return estimate;
+    }
+}
@@ -1,20 +1,141 @@
 package com.example.learning.repository;
 
+import com.example.learning.dto.LearningSummary;
 import com.example.learning.entity.Learning;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface LearningRepository extends JpaRepository<Learning, Long> {
 
+    // The plain list queries below use the query cache: results (ids for entities, the
+    // entities themselves come from the second-level cache) are reused until the learning
+    // table changes. Search and tag queries vary too much to be worth caching.
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<Learning> findAll(Pageable pageable);
+
+    @Override
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    long count();
+
     @Query("SELECT l FROM Learning l WHERE " +
            "LOWER(l.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(l.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(l.tags) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
            "LOWER(l.category) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
     Page<Learning> findBySearchTerm(@Param("searchTerm") String searchTerm, Pageable pageable);
+
+    // PostgreSQL only: served by the GIN index on search_vector (V4 vendor migration)
+    @Query(value = "SELECT * FROM learning WHERE search_vector @@ to_tsquery('simple', :query) " +
+                   "ORDER BY ts_rank(search_vector, to_tsquery('simple', :query)) DESC, id DESC",
+           countQuery = "SELECT COUNT(*) FROM learning WHERE search_vector @@ to_tsquery('simple', :query)",
+           nativeQuery = true)
+    Page<Learning> findByFullText(@Param("query") String query, Pageable pageable);
+
+    // Exact tag filters over learning_tag (names normalized by TagService), served by idx_learning_tag_tag
+    @Query("SELECT l FROM Learning l WHERE l.id IN (" +
+           "SELECT lt.learningId FROM LearningTag lt JOIN Tag t ON t.id = lt.tagId WHERE t.name IN :tags)")
+    Page<Learning> findByAnyTag(@Param("tags") Collection<String> tags, Pageable pageable);
+
+    @Query("SELECT l FROM Learning l WHERE l.id IN (" +
+           "SELECT lt.learningId FROM LearningTag lt JOIN Tag t ON t.id = lt.tagId WHERE t.name IN :tags " +
+           "GROUP BY lt.learningId HAVING COUNT(lt.tagId) = :tagCount)")
+    Page<Learning> findByAllTags(@Param("tags") Collection<String> tags, @Param("tagCount") long tagCount,
+                                 Pageable pageable);
+
+    // Ids matching the LIKE / full-text predicates above, used to scope facet counts to a search
+    @Query("SELECT l.id FROM Learning l WHERE " +
+           "LOWER(l.title) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(l.description) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(l.tags) LIKE LOWER(CONCAT('%', :searchTerm, '%')) OR " +
+           "LOWER(l.category) LIKE LOWER(CONCAT('%', :searchTerm, '%'))")
+    List<Long> findIdsBySearchTerm(@Param("searchTerm") String searchTerm);
+
+    @Query(value = "SELECT id FROM learning WHERE search_vector @@ to_tsquery('simple', :query)", nativeQuery = true)
+    List<Long> findIdsByFullText(@Param("query") String query);
+
+    // Facet aggregates: rows of [value, count]; served by idx_learning_category and idx_learning_date_id
+    @Query("SELECT l.category, COUNT(l) FROM Learning l WHERE l.category IS NOT NULL GROUP BY l.category")
+    List<Object[]> countByCategory();
+
+    @Query("SELECT l.category, COUNT(l) FROM Learning l WHERE l.category IS NOT NULL AND l.id IN :ids " +
+           "GROUP BY l.category")
+    List<Object[]> countByCategory(@Param("ids") Collection<Long> ids);
+
+    // Rows of [year, month, count]
+    @Query("SELECT YEAR(l.date), MONTH(l.date), COUNT(l) FROM Learning l WHERE l.date IS NOT NULL " +
+           "GROUP BY YEAR(l.date), MONTH(l.date)")
+    List<Object[]> countByMonth();
+
+    @Query("SELECT YEAR(l.date), MONTH(l.date), COUNT(l) FROM Learning l WHERE l.date IS NOT NULL " +
+           "AND l.id IN :ids GROUP BY YEAR(l.date), MONTH(l.date)")
+    List<Object[]> countByMonth(@Param("ids") Collection<Long> ids);
+
+    // List view: light columns and the start of the description only (see LearningSummary)
+    @Query(value = "SELECT new com.example.learning.dto.LearningSummary(l.id, l.title, l.category, l.date, l.tags, " +
+                   "SUBSTRING(l.description, 1, " + LearningSummary.RAW_SNIPPET_LENGTH + ")) FROM Learning l",
+           countQuery = "SELECT COUNT(l) FROM Learning l")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Page<LearningSummary> findSummaries(Pageable pageable);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT new com.example.learning.dto.LearningSummary(l.id, l.title, l.category, l.date, l.tags, " +
+           "SUBSTRING(l.description, 1, " + LearningSummary.RAW_SNIPPET_LENGTH + ")) FROM Learning l")
+    Slice<LearningSummary> findSummarySlice(Pageable pageable);
+
+    // Offset pagination without the count(*) query
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    Slice<Learning> findSliceBy(Pageable pageable);
+
+    // Keyset pagination over (date DESC NULLS FIRST, id DESC), served by idx_learning_date_id
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT l FROM Learning l ORDER BY l.date DESC NULLS FIRST, l.id DESC")
+    List<Learning> findKeysetFirstPage(Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT l FROM Learning l WHERE (l.date IS NULL AND l.id < :id) OR l.date IS NOT NULL " +
+           "ORDER BY l.date DESC NULLS FIRST, l.id DESC")
+    List<Learning> findKeysetPageAfterUndated(@Param("id") Long id, Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    @Query("SELECT l FROM Learning l WHERE l.date <= :date AND (l.date < :date OR l.id < :id) " +
+           "ORDER BY l.date DESC NULLS FIRST, l.id DESC")
+    List<Learning> findKeysetPageAfter(@Param("date") LocalDate date, @Param("id") Long id, Limit limit);
+
+    // Cursor over the whole table for streaming exports; must be consumed inside a transaction
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM Learning l ORDER BY l.id")
+    Stream<Learning> streamAll();
+
+    // Safety net before an orphaned upload is deleted; the cast keeps LIKE working on a jsonb column
+    @Query("SELECT COUNT(l) > 0 FROM Learning l WHERE CAST(l.attachments AS String) LIKE CONCAT('%', :fragment, '%')")
+    boolean existsByAttachmentsContaining(@Param("fragment") String fragment);
+
+    // PostgreSQL only: jsonb containment, served by the GIN index on custom_properties (V10 vendor migration)
+    @Query(value = "SELECT * FROM learning WHERE custom_properties @> CAST(:properties AS jsonb) ORDER BY id",
+           countQuery = "SELECT COUNT(*) FROM learning WHERE custom_properties @> CAST(:properties AS jsonb)",
+           nativeQuery = true)
+    Page<Learning> findByCustomPropertiesContaining(@Param("properties") String propertiesJson, Pageable pageable);
+
+    // Portable fallback: candidates whose JSON text mentions the key, checked in Java; rows of [id, customProperties]
+    @Query("SELECT l.id, l.customProperties FROM Learning l WHERE l.customProperties LIKE :pattern ORDER BY l.id")
+    List<Object[]> findCustomPropertiesLike(@Param("pattern") String pattern);
 }
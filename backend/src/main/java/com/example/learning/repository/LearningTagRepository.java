@@ -0,0 +1,38 @@
+package com.example.learning.repository;
+
+import com.example.learning.entity.LearningTag;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LearningTagRepository extends JpaRepository<LearningTag, LearningTag.Key> {
+
+    @Query("SELECT t.name FROM LearningTag lt JOIN Tag t ON t.id = lt.tagId WHERE lt.learningId = :learningId")
+    List<String> findTagNamesByLearningId(@Param("learningId") Long learningId);
+
+    // Rows of [learning id, tag name]
+    @Query("SELECT lt.learningId, t.name FROM LearningTag lt JOIN Tag t ON t.id = lt.tagId " +
+           "WHERE lt.learningId IN :learningIds")
+    List<Object[]> findTagNamesByLearningIds(@Param("learningIds") Collection<Long> learningIds);
+
+    // Facet aggregates: rows of [tag name, count], counted off idx_learning_tag_tag
+    @Query("SELECT t.name, COUNT(lt) FROM LearningTag lt JOIN Tag t ON t.id = lt.tagId GROUP BY t.name")
+    List<Object[]> countByTag();
+
+    @Query("SELECT t.name, COUNT(lt) FROM LearningTag lt JOIN Tag t ON t.id = lt.tagId " +
+           "WHERE lt.learningId IN :learningIds GROUP BY t.name")
+    List<Object[]> countByTag(@Param("learningIds") Collection<Long> learningIds);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM LearningTag lt WHERE lt.learningId = :learningId AND lt.tagId IN " +
+           "(SELECT t.id FROM Tag t WHERE t.name IN :names)")
+    int deleteByLearningIdAndTagNames(@Param("learningId") Long learningId, @Param("names") Collection<String> names);
+}
@@ -0,0 +1,191 @@
+package com.example.learning.search;
+
+import com.example.learning.config.DatabasePlatform;
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text search over learnings.
+ * <ul>
+ * <li>{@code postgres}: tsvector column + GIN index (see db/vendor/postgresql), ranked with ts_rank</li>
+ * <li>{@code memory}: in-process {@link InvertedIndex}, used on H2</li>
+ * <li>{@code like}: the original LIKE scan, also used while the in-memory index is being built</li>
+ * </ul>
+ * {@code learning.search.engine=auto} picks postgres or memory from the connected database.
+ */
+@Service
+public class LearningSearchService {
+
+    public enum Engine {
+        POSTGRES, MEMORY, LIKE
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(LearningSearchService.class);
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float TAGS_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final int REINDEX_BATCH_SIZE = 500;
+
+    private final LearningRepository learningRepository;
+    private final Engine engine;
+    private final InvertedIndex index = new InvertedIndex();
+    private volatile boolean indexReady = false;
+
+    public LearningSearchService(LearningRepository learningRepository,
+            DatabasePlatform databasePlatform,
+            @Value("${learning.search.engine:auto}") String engine) {
+        this.learningRepository = learningRepository;
+        this.engine = resolveEngine(engine, databasePlatform);
+        log.info("Learning search engine: {}", this.engine);
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    public Page<Learning> search(String term, Pageable pageable) {
+        List<String> tokens = SearchTokenizer.tokenize(term);
+        if (tokens.isEmpty()) {
+            // Nothing indexable (e.g. only punctuation): keep the substring semantics
+            return learningRepository.findBySearchTerm(term, pageable);
+        }
+        switch (engine) {
+            case POSTGRES:
+                return learningRepository.findByFullText(toTsQuery(tokens), pageable);
+            case MEMORY:
+                if (indexReady) {
+                    return searchIndex(tokens, pageable);
+                }
+                return learningRepository.findBySearchTerm(term, pageable);
+            default:
+                return learningRepository.findBySearchTerm(term, pageable);
+        }
+    }
+
+    /**
+     * Ids of all learnings {@link #search} would return for {@code term}, unordered.
+     */
+    public List<Long> searchIds(String term) {
+        List<String> tokens = SearchTokenizer.tokenize(term);
+        if (tokens.isEmpty()) {
+            return learningRepository.findIdsBySearchTerm(term);
+        }
+        switch (engine) {
+            case POSTGRES:
+                return learningRepository.findIdsByFullText(toTsQuery(tokens));
+            case MEMORY:
+                if (indexReady) {
+                    return index.search(tokens);
+                }
+                return learningRepository.findIdsBySearchTerm(term);
+            default:
+                return learningRepository.findIdsBySearchTerm(term);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        if (engine != Engine.MEMORY) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        index.clear();
+        Page<Learning> page = learningRepository.findAll(PageRequest.of(0, REINDEX_BATCH_SIZE, Sort.by("id")));
+        while (true) {
+            page.getContent().forEach(this::indexLearning);
+            if (!page.hasNext()) {
+                break;
+            }
+            page = learningRepository.findAll(page.nextPageable());
+        }
+        indexReady = true;
+        log.info("Indexed {} learnings for search in {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningChanged(LearningChangedEvent event) {
+        if (engine != Engine.MEMORY || event.getLearningId() == null) {
+            return;
+        }
+        if (event.getType() == LearningChangedEvent.Type.DELETED) {
+            index.remove(event.getLearningId());
+        } else {
+            indexLearning(event.getAfter());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningBatchChanged(LearningBatchChangedEvent event) {
+        event.getChanges().forEach(this::onLearningChanged);
+    }
+
+    private Page<Learning> searchIndex(List<String> tokens, Pageable pageable) {
+        List<Long> ids = index.search(tokens);
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        List<Long> pageIds = ids.subList(from, to);
+
+        Map<Long, Learning> byId = learningRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Learning::getId, Function.identity()));
+        List<Learning> content = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Learning learning = byId.get(id);
+            if (learning != null) {
+                content.add(learning);
+            }
+        }
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    private void indexLearning(Learning learning) {
+        Map<String, Float> weights = new HashMap<>();
+        addTerms(weights, learning.getTitle(), TITLE_WEIGHT);
+        addTerms(weights, learning.getTags(), TAGS_WEIGHT);
+        addTerms(weights, learning.getCategory(), CATEGORY_WEIGHT);
+        addTerms(weights, learning.getDescription(), DESCRIPTION_WEIGHT);
+        index.put(learning.getId(), weights);
+    }
+
+    private static void addTerms(Map<String, Float> weights, String text, float weight) {
+        for (String token : SearchTokenizer.tokenize(text)) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    // Every token must match, each as a prefix: "spr boo" -> "spr:* & boo:*"
+    static String toTsQuery(List<String> tokens) {
+        return tokens.stream().map(token -> token + ":*").collect(Collectors.joining(" & "));
+    }
+
+    private static Engine resolveEngine(String configured, DatabasePlatform databasePlatform) {
+        String value = configured == null ? "auto" : configured.trim().toLowerCase(Locale.ROOT);
+        if (value.equals("auto")) {
+            return databasePlatform.isPostgres() ? Engine.POSTGRES : Engine.MEMORY;
+        }
+        return Engine.valueOf(value.toUpperCase(Locale.ROOT));
+    }
+}
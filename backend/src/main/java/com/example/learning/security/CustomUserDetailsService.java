@@ -9,6 +9,7 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Arrays;
 import java.util.Collection;
@@ -20,7 +21,13 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
+    // Read-write, so a replica setup answers logins from the primary: a just registered or
+    // changed account must not be hidden by replication lag
     @Override
+    @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
@@ -35,7 +42,13 @@ public class CustomUserDetailsService implements UserDetailsService {
                 getAuthorities(user.getRoles()));
     }
 
-    private Collection<? extends GrantedAuthority> getAuthorities(String roles) {
+    // Used by the JWT filter on every request; login keeps reading the database.
+    // Not transactional: a cache miss is a read-only repository call, served by a replica if any
+    public UserDetails loadUserByUsernameCached(String username) throws UsernameNotFoundException {
+        return principalCache.get(username, this::loadUserByUsername);
+    }
+
+    static Collection<? extends GrantedAuthority> getAuthorities(String roles) {
         return Arrays.stream(roles.split(","))
                 .map(String::trim)
                 .map(SimpleGrantedAuthority::new)
@@ -1,16 +1,24 @@
 package com.example.learning.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 @Component
@@ -22,12 +30,44 @@ public class JwtUtil {
     private final SecretKey SECRET_KEY = io.jsonwebtoken.security.Keys
             .hmacShaKeyFor(SECRET_STRING.getBytes(StandardCharsets.UTF_8));
 
+    // Parsers are immutable and thread-safe, so build the verifying parser once
+    private final JwtParser jwtParser = Jwts.parser()
+            .verifyWith(SECRET_KEY)
+            .build();
+
     // 1 hour in milliseconds
     private static final long JWT_TOKEN_VALIDITY = 60 * 60 * 1000;
 
     // 7 days in milliseconds (for "Remember Me")
     private static final long JWT_REMEMBER_ME_VALIDITY = 7 * 24 * 60 * 60 * 1000;
 
+    // Recently verified tokens keyed by SHA-256 of the token, null when disabled
+    private final Cache<String, Claims> verifiedTokens;
+
+    // auth.jwt.verify{outcome=cached|valid|invalid}: time spent in parseToken per request
+    private final Timer cachedTimer;
+    private final Timer validTimer;
+    private final Timer invalidTimer;
+
+    public JwtUtil(
+            @Value("${security.jwt.verified-cache.max-size:10000}") long verifiedCacheSize,
+            @Value("${security.jwt.verified-cache.ttl:60s}") Duration verifiedCacheTtl,
+            MeterRegistry meterRegistry) {
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? Caffeine.newBuilder().maximumSize(verifiedCacheSize).expireAfterWrite(verifiedCacheTtl).build()
+                : null;
+        this.cachedTimer = verifyTimer("cached", meterRegistry);
+        this.validTimer = verifyTimer("valid", meterRegistry);
+        this.invalidTimer = verifyTimer("invalid", meterRegistry);
+    }
+
+    private static Timer verifyTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.jwt.verify")
+                .description("JWT parse and signature verification")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
     // Extract username from token
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -46,18 +86,56 @@ public class JwtUtil {
 
     // Extract all claims from token
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(SECRET_KEY)
-                .build()
+        return jwtParser
                 .parseSignedClaims(token)
                 .getPayload();
     }
 
+    /**
+     * Verifies the signature and expiry of a token once and returns its claims,
+     * or null if the token is invalid or expired. Hot tokens are served from a
+     * short-lived cache instead of being parsed and HMAC-verified again.
+     */
+    public Claims parseToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        long start = System.nanoTime();
+        String cacheKey = verifiedTokens != null ? hash(token) : null;
+        if (cacheKey != null) {
+            Claims cached = verifiedTokens.getIfPresent(cacheKey);
+            if (cached != null) {
+                if (!isExpired(cached)) {
+                    cachedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    return cached;
+                }
+                verifiedTokens.invalidate(cacheKey);
+                invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return null;
+            }
+        }
+        try {
+            Claims claims = extractAllClaims(token);
+            if (cacheKey != null) {
+                verifiedTokens.put(cacheKey, claims);
+            }
+            validTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return null;
+        }
+    }
+
     // Check if token is expired
     private Boolean isTokenExpired(String token) {
         return extractExpiration(token).before(new Date());
     }
 
+    private static boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
+    }
+
     // Generate token for user (standard 1 hour)
     public String generateToken(UserDetails userDetails) {
         Map<String, Object> claims = new HashMap<>();
@@ -80,22 +158,29 @@ public class JwtUtil {
                 .compact();
     }
 
+    // Validate already parsed claims against the user, without parsing the token again
+    public boolean validateToken(Claims claims, UserDetails userDetails) {
+        return claims != null
+                && userDetails.getUsername().equals(claims.getSubject())
+                && !isExpired(claims);
+    }
+
     // Validate token
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return validateToken(parseToken(token), userDetails);
     }
 
     // Validate token without UserDetails
     public Boolean validateToken(String token) {
+        return parseToken(token) != null;
+    }
+
+    private static String hash(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(SECRET_KEY)
-                    .build()
-                    .parseSignedClaims(token);
-            return !isTokenExpired(token);
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 }
@@ -0,0 +1,207 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.AttachmentRef;
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.AttachmentRefRepository;
+import com.example.learning.repository.LearningRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps attachment_ref counts in step with the attachments JSON of learnings,
+ * and removes content-addressed files nobody references any more.
+ * <p>
+ * Counts are adjusted from LearningChangedEvent (before/after diff) after the
+ * learning's transaction commits; batch writes adjust them in bulk within their
+ * own transaction ({@link #adjust(Collection)}). A file whose count is zero is not deleted
+ * immediately: it may have just been uploaded for a learning that is not saved
+ * yet. The periodic sweep only removes files older than
+ * {@code file.upload.orphan-grace-period}.
+ */
+@Service
+public class AttachmentRefService {
+
+    private static final Logger log = LoggerFactory.getLogger(AttachmentRefService.class);
+    private static final String UPLOADS_PATH = "/uploads/";
+
+    private final AttachmentRefRepository attachmentRefRepository;
+    private final LearningRepository learningRepository;
+    private final AttachmentStorageService attachmentStorageService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate newRefTransaction;
+    private final Duration orphanGracePeriod;
+
+    public AttachmentRefService(AttachmentRefRepository attachmentRefRepository,
+            LearningRepository learningRepository,
+            AttachmentStorageService attachmentStorageService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${file.upload.orphan-grace-period:24h}") Duration orphanGracePeriod) {
+        this.attachmentRefRepository = attachmentRefRepository;
+        this.learningRepository = learningRepository;
+        this.attachmentStorageService = attachmentStorageService;
+        this.objectMapper = objectMapper;
+        this.newRefTransaction = new TransactionTemplate(transactionManager);
+        this.newRefTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.orphanGracePeriod = orphanGracePeriod;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onLearningChanged(LearningChangedEvent event) {
+        diff(event, this::adjust);
+    }
+
+    /**
+     * Adjusts the counts for a batch of changes in the caller's transaction,
+     * with one statement per file whose count changes overall.
+     */
+    @Transactional
+    public void adjust(Collection<LearningChangedEvent> changes) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (LearningChangedEvent change : changes) {
+            diff(change, (fileName, delta) -> deltas.merge(fileName, delta, Long::sum));
+        }
+        deltas.forEach((fileName, delta) -> {
+            if (delta != 0) {
+                adjust(fileName, delta);
+            }
+        });
+    }
+
+    private void diff(LearningChangedEvent event, BiConsumer<String, Long> adjustment) {
+        Set<String> before = referencedFiles(event.getBefore());
+        Set<String> after = referencedFiles(event.getAfter());
+        for (String fileName : before) {
+            if (!after.contains(fileName)) {
+                adjustment.accept(fileName, -1L);
+            }
+        }
+        for (String fileName : after) {
+            if (!before.contains(fileName)) {
+                adjustment.accept(fileName, 1L);
+            }
+        }
+    }
+
+    public long getRefCount(String fileName) {
+        return attachmentRefRepository.findById(fileName).map(AttachmentRef::getRefCount).orElse(0L);
+    }
+
+    @Scheduled(initialDelayString = "${file.upload.orphan-sweep-interval:PT6H}",
+            fixedDelayString = "${file.upload.orphan-sweep-interval:PT6H}")
+    @Transactional
+    public int sweepOrphans() {
+        if (!attachmentStorageService.isContentAddressed()) {
+            return 0;
+        }
+        Instant cutoff = Instant.now().minus(orphanGracePeriod);
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(attachmentStorageService.getUploadLocation(),
+                path -> AttachmentStorageService.isContentAddressedName(path.getFileName().toString()))) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (getRefCount(fileName) > 0 || Files.getLastModifiedTime(file).toInstant().isAfter(cutoff)) {
+                    continue;
+                }
+                // Counts are maintained after commit; double check before deleting anything
+                if (learningRepository.existsByAttachmentsContaining(fileName)) {
+                    log.warn("Attachment {} is referenced but had no ref count, keeping it", fileName);
+                    continue;
+                }
+                Files.deleteIfExists(file);
+                deleteVariants(file);
+                attachmentRefRepository.deleteById(fileName);
+                deleted++;
+            }
+        } catch (IOException ex) {
+            log.warn("Orphaned attachment sweep failed", ex);
+        }
+        if (deleted > 0) {
+            log.info("Removed {} orphaned attachments", deleted);
+        }
+        return deleted;
+    }
+
+    // Preview variants (see ThumbnailService) of a removed original: <base>_w<width><ext>
+    private static void deleteVariants(Path original) throws IOException {
+        String fileName = original.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String base = dot < 0 ? fileName : fileName.substring(0, dot);
+        String extension = dot < 0 ? "" : fileName.substring(dot);
+        try (DirectoryStream<Path> variants = Files.newDirectoryStream(original.getParent(),
+                base + "_w*" + extension)) {
+            for (Path variant : variants) {
+                Files.deleteIfExists(variant);
+            }
+        }
+    }
+
+    private void adjust(String fileName, long delta) {
+        if (attachmentRefRepository.adjustRefCount(fileName, delta) > 0) {
+            return;
+        }
+        try {
+            // Own transaction: a concurrent first reference must not roll back the caller
+            newRefTransaction.executeWithoutResult(status -> attachmentRefRepository.insertZeroRefCount(fileName));
+        } catch (DataIntegrityViolationException ex) {
+            // Created concurrently by another learning, so its count is real
+            attachmentRefRepository.adjustRefCount(fileName, delta);
+            return;
+        }
+        // The count itself changes in the caller's transaction, like the update above
+        if (delta > 0) {
+            attachmentRefRepository.adjustRefCount(fileName, delta);
+        }
+    }
+
+    // Content-addressed file names referenced by the learning's attachments JSON
+    Set<String> referencedFiles(Learning learning) {
+        Set<String> fileNames = new HashSet<>();
+        if (learning == null || learning.getAttachments() == null || learning.getAttachments().isBlank()) {
+            return fileNames;
+        }
+        try {
+            for (JsonNode attachment : objectMapper.readTree(learning.getAttachments())) {
+                String url = attachment.path("url").asText("");
+                int index = url.lastIndexOf(UPLOADS_PATH);
+                if (index < 0) {
+                    continue;
+                }
+                String fileName = url.substring(index + UPLOADS_PATH.length());
+                if (AttachmentStorageService.isContentAddressedName(fileName)) {
+                    fileNames.add(fileName);
+                }
+            }
+        } catch (IOException ex) {
+            log.debug("Ignoring malformed attachments JSON of learning {}", learning.getId());
+        }
+        return fileNames;
+    }
+}
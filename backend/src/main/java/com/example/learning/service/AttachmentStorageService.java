@@ -0,0 +1,241 @@
+package com.example.learning.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Writes uploaded files into {@code file.upload.path}.
+ * <ul>
+ * <li>{@code uuid} (default): every upload gets a fresh {@code <uuid><ext>} name</li>
+ * <li>{@code content-addressed}: files are SHA-256 hashed while they stream to a
+ * temp file and stored once as {@code <sha256><ext>}; a second upload of the same
+ * bytes is discarded instead of written. Reference counts per stored file are kept
+ * by AttachmentRefService.</li>
+ * </ul>
+ */
+@Service
+public class AttachmentStorageService {
+
+    public enum Mode {
+        UUID, CONTENT_ADDRESSED
+    }
+
+    private static final Pattern DIGEST_NAME = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,10})?");
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-fA-F]{64}");
+    private static final Pattern SAFE_EXTENSION = Pattern.compile("\\.[a-z0-9]{1,10}");
+
+    private final Path uploadLocation;
+    private final Path tempLocation;
+    private final Mode mode;
+    // uploads.bytes / uploads.duration{type=multipart}: rate(bytes) is the upload throughput
+    private final DistributionSummary uploadBytes;
+    private final Timer uploadTimer;
+
+    public AttachmentStorageService(@Value("${file.upload.path:uploads}") String uploadPath,
+            @Value("${file.upload.storage:uuid}") String mode,
+            MeterRegistry meterRegistry) {
+        this.uploadBytes = uploadBytes("multipart", meterRegistry);
+        this.uploadTimer = uploadTimer("multipart", meterRegistry);
+        this.uploadLocation = Paths.get(uploadPath).toAbsolutePath().normalize();
+        this.tempLocation = uploadLocation.resolve(".tmp");
+        this.mode = Mode.valueOf(mode.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+        try {
+            Files.createDirectories(this.uploadLocation);
+        } catch (Exception ex) {
+            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public boolean isContentAddressed() {
+        return mode == Mode.CONTENT_ADDRESSED;
+    }
+
+    public Path getUploadLocation() {
+        return uploadLocation;
+    }
+
+    static DistributionSummary uploadBytes(String type, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder("uploads.bytes")
+                .description("Bytes written to disk per upload")
+                .baseUnit("bytes")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    static Timer uploadTimer(String type, MeterRegistry meterRegistry) {
+        return Timer.builder("uploads.duration")
+                .description("Time to stream an upload to disk")
+                .tag("type", type)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores the stream and returns the stored file name (relative to the upload directory).
+     */
+    public String store(InputStream content, String originalFilename) throws IOException {
+        long start = System.nanoTime();
+        if (!isContentAddressed()) {
+            String fileName = UUID.randomUUID().toString() + extensionOf(originalFilename);
+            long size = Files.copy(content, uploadLocation.resolve(fileName), StandardCopyOption.REPLACE_EXISTING);
+            recordUpload(size, start);
+            return fileName;
+        }
+
+        Files.createDirectories(tempLocation);
+        Path temp = Files.createTempFile(tempLocation, "upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            try (InputStream in = new DigestInputStream(content, digest)) {
+                recordUpload(Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING), start);
+            }
+            return moveIntoStore(temp, HexFormat.of().formatHex(digest.digest()), originalFilename);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private void recordUpload(long size, long start) {
+        uploadBytes.record(size);
+        uploadTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stores a file that is already on disk (e.g. a completed chunked upload),
+     * moving it rather than copying.
+     */
+    public String storeFile(Path source, String originalFilename) throws IOException {
+        if (!isContentAddressed()) {
+            String fileName = UUID.randomUUID().toString() + extensionOf(originalFilename);
+            move(source, uploadLocation.resolve(fileName));
+            return fileName;
+        }
+        try {
+            return moveIntoStore(source, sha256Hex(source), originalFilename);
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    /**
+     * Looks up content the client has hashed itself, so a duplicate can be
+     * attached without sending the bytes. Only meaningful in content-addressed mode.
+     */
+    public Optional<String> findByDigest(String sha256, String originalFilename) {
+        if (!isContentAddressed() || sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            return Optional.empty();
+        }
+        String fileName = sha256.toLowerCase(Locale.ROOT) + safeExtensionOf(originalFilename);
+        try {
+            return touchIfExists(uploadLocation.resolve(fileName)) ? Optional.of(fileName) : Optional.empty();
+        } catch (IOException ex) {
+            // The client falls back to sending the bytes
+            return Optional.empty();
+        }
+    }
+
+    public static boolean isContentAddressedName(String fileName) {
+        return fileName != null && DIGEST_NAME.matcher(fileName).matches();
+    }
+
+    // Same rule the upload endpoints always used: everything from the last dot
+    static String extensionOf(String originalFilename) {
+        if (originalFilename != null && originalFilename.contains(".")) {
+            return originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return "";
+    }
+
+    // Digest names are shared between uploaders, so only keep simple extensions
+    static String safeExtensionOf(String originalFilename) {
+        String extension = extensionOf(originalFilename).toLowerCase(Locale.ROOT);
+        return SAFE_EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private String moveIntoStore(Path source, String digest, String originalFilename) throws IOException {
+        String fileName = digest + safeExtensionOf(originalFilename);
+        Path target = uploadLocation.resolve(fileName);
+        if (touchIfExists(target)) {
+            // Duplicate content: nothing to write
+            return fileName;
+        }
+        try {
+            move(source, target);
+        } catch (FileAlreadyExistsException ex) {
+            // Same bytes stored concurrently by another upload
+            touchIfExists(target);
+        }
+        return fileName;
+    }
+
+    // Handing out stored content restarts its orphan grace period, so the sweep
+    // (AttachmentRefService.sweepOrphans) can't delete it before the learning
+    // referencing it is saved
+    private static boolean touchIfExists(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException ex) {
+            return false;
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException ex) {
+            Files.move(source, target);
+        }
+    }
+
+    static String sha256Hex(Path file) throws IOException {
+        MessageDigest digest = sha256();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
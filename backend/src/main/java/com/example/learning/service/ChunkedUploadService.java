@@ -0,0 +1,319 @@
+package com.example.learning.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable chunked uploads. A session is initiated with the final size, then
+ * chunks are written straight into {@code <id>.partial} at their offset through
+ * a FileChannel (no multipart temp copy). The committed offset is simply the
+ * size of the partial file, so an interrupted client asks for the status and
+ * resumes from there. On completion the partial file is handed to
+ * AttachmentStorageService, which moves it into the upload directory.
+ * <p>
+ * Session metadata lives in a {@code <id>.json} sidecar next to the partial
+ * file so uploads survive restarts. Sessions untouched for longer than
+ * {@code file.upload.chunked.expiry} are removed when new sessions start.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChunkedUploadService.class);
+    private static final Pattern UPLOAD_ID = Pattern.compile("[0-9a-f\\-]{36}");
+
+    private final AttachmentStorageService attachmentStorageService;
+    private final Path sessionLocation;
+    private final long maxFileSize;
+    private final long maxChunkSize;
+    private final Duration expiry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // Chunks of one session are written one at a time. ReentrantLock rather than
+    // synchronized, so a virtual thread blocked on disk I/O does not pin its carrier.
+    private final Map<String, ReentrantLock> sessionLocks = new ConcurrentHashMap<>();
+    private final DistributionSummary chunkBytes;
+    private final Timer chunkTimer;
+
+    public ChunkedUploadService(AttachmentStorageService attachmentStorageService,
+            @Value("${file.upload.chunked.path:uploads-partial}") String sessionPath,
+            @Value("${file.upload.chunked.max-file-size:2GB}") DataSize maxFileSize,
+            @Value("${file.upload.chunked.max-chunk-size:16MB}") DataSize maxChunkSize,
+            @Value("${file.upload.chunked.expiry:24h}") Duration expiry,
+            MeterRegistry meterRegistry) {
+        this.chunkBytes = AttachmentStorageService.uploadBytes("chunk", meterRegistry);
+        this.chunkTimer = AttachmentStorageService.uploadTimer("chunk", meterRegistry);
+        this.attachmentStorageService = attachmentStorageService;
+        this.sessionLocation = Paths.get(sessionPath).toAbsolutePath().normalize();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.maxChunkSize = maxChunkSize.toBytes();
+        this.expiry = expiry;
+        try {
+            Files.createDirectories(this.sessionLocation);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the directories for chunked uploads.", ex);
+        }
+    }
+
+    public long getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public UploadSession initiate(String filename, long size) throws IOException {
+        if (size < 0 || size > maxFileSize) {
+            throw new IllegalArgumentException("File size must be between 0 and " + maxFileSize + " bytes");
+        }
+        removeExpiredSessions();
+
+        String id = UUID.randomUUID().toString();
+        UploadSession session = new UploadSession(id, filename != null ? filename : "unknown", size, 0);
+        objectMapper.writeValue(metadataPath(id).toFile(), Map.of("filename", session.getFilename(), "size", size));
+        Files.createFile(partialPath(id));
+        return session;
+    }
+
+    public Optional<UploadSession> find(String id) throws IOException {
+        if (!UPLOAD_ID.matcher(id).matches() || !Files.exists(metadataPath(id))) {
+            return Optional.empty();
+        }
+        Map<?, ?> metadata = objectMapper.readValue(metadataPath(id).toFile(), Map.class);
+        long offset;
+        try {
+            offset = Files.size(partialPath(id));
+        } catch (NoSuchFileException ex) {
+            return Optional.empty();
+        }
+        return Optional.of(new UploadSession(id, (String) metadata.get("filename"),
+                ((Number) metadata.get("size")).longValue(), offset));
+    }
+
+    /**
+     * Appends a chunk at {@code offset}, which must equal the committed offset.
+     * When {@code expectedSha256} is given the chunk is hashed while it is
+     * written and rolled back if the digest does not match.
+     *
+     * @return the new committed offset
+     */
+    public long writeChunk(String id, long offset, InputStream body, String expectedSha256) throws IOException {
+        ReentrantLock lock = lockSession(id);
+        try {
+            UploadSession session = find(id).orElseThrow(() -> new UploadNotFoundException(id));
+            if (offset != session.getOffset()) {
+                throw new OffsetMismatchException(session.getOffset());
+            }
+
+            long start = System.nanoTime();
+            MessageDigest digest = sha256();
+            long limit = Math.min(maxChunkSize, session.getSize() - offset);
+            try (FileChannel channel = FileChannel.open(partialPath(id), StandardOpenOption.WRITE);
+                    ReadableByteChannel source = Channels.newChannel(new DigestInputStream(body, digest))) {
+                // One byte past the limit tells an oversized chunk apart from an exact fit
+                long written;
+                try {
+                    written = channel.transferFrom(source, offset, limit + 1);
+                } catch (IOException ex) {
+                    // A broken connection keeps what arrived, unless it can't be verified
+                    if (expectedSha256 != null) {
+                        channel.truncate(offset);
+                    }
+                    throw ex;
+                }
+                if (written > limit) {
+                    channel.truncate(offset);
+                    throw new IllegalArgumentException("Chunk exceeds the remaining size or the maximum chunk size of "
+                            + maxChunkSize + " bytes");
+                }
+                if (expectedSha256 != null && !HexFormat.of().formatHex(digest.digest())
+                        .equalsIgnoreCase(expectedSha256.trim())) {
+                    channel.truncate(offset);
+                    throw new ChecksumMismatchException("Chunk checksum mismatch");
+                }
+                channel.force(false);
+                chunkBytes.record(written);
+                chunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return offset + written;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a fully received upload into the upload directory and returns the
+     * stored file name. {@code expectedSha256} optionally verifies the whole file.
+     */
+    public String complete(String id, String expectedSha256) throws IOException {
+        ReentrantLock lock = lockSession(id);
+        try {
+            UploadSession session = find(id).orElseThrow(() -> new UploadNotFoundException(id));
+            if (session.getOffset() != session.getSize()) {
+                throw new OffsetMismatchException(session.getOffset());
+            }
+            if (expectedSha256 != null && !AttachmentStorageService.sha256Hex(partialPath(id))
+                    .equalsIgnoreCase(expectedSha256.trim())) {
+                throw new ChecksumMismatchException("File checksum mismatch");
+            }
+
+            String storedName = attachmentStorageService.storeFile(partialPath(id), session.getFilename());
+            Files.deleteIfExists(metadataPath(id));
+            sessionLocks.remove(id);
+            return storedName;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean abort(String id) throws IOException {
+        if (!UPLOAD_ID.matcher(id).matches()) {
+            return false;
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        try {
+            boolean existed = Files.deleteIfExists(metadataPath(id));
+            Files.deleteIfExists(partialPath(id));
+            sessionLocks.remove(id);
+            return existed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removeExpiredSessions() {
+        Instant cutoff = Instant.now().minus(expiry);
+        try (DirectoryStream<Path> partials = Files.newDirectoryStream(sessionLocation, "*.partial")) {
+            for (Path partial : partials) {
+                if (Files.getLastModifiedTime(partial).toInstant().isBefore(cutoff)) {
+                    String name = partial.getFileName().toString();
+                    abort(name.substring(0, name.length() - ".partial".length()));
+                }
+            }
+        } catch (IOException ex) {
+            log.warn("Could not remove expired upload sessions", ex);
+        }
+    }
+
+    // Unknown ids never get a lock, and one aborted while we waited loses its entry again
+    private ReentrantLock lockSession(String id) throws IOException {
+        if (find(id).isEmpty()) {
+            throw new UploadNotFoundException(id);
+        }
+        ReentrantLock lock = lockFor(id);
+        lock.lock();
+        if (find(id).isEmpty()) {
+            sessionLocks.remove(id, lock);
+            lock.unlock();
+            throw new UploadNotFoundException(id);
+        }
+        return lock;
+    }
+
+    int lockCount() {
+        return sessionLocks.size();
+    }
+
+    private ReentrantLock lockFor(String id) {
+        return sessionLocks.computeIfAbsent(id, key -> new ReentrantLock());
+    }
+
+    private Path partialPath(String id) {
+        return sessionLocation.resolve(id + ".partial");
+    }
+
+    private Path metadataPath(String id) {
+        return sessionLocation.resolve(id + ".json");
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    public static class UploadSession {
+        private final String id;
+        private final String filename;
+        private final long size;
+        private final long offset;
+
+        public UploadSession(String id, String filename, long size, long offset) {
+            this.id = id;
+            this.filename = filename;
+            this.size = size;
+            this.offset = offset;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+
+    public static class UploadNotFoundException extends RuntimeException {
+        public UploadNotFoundException(String id) {
+            super("Upload session not found: " + id);
+        }
+    }
+
+    public static class OffsetMismatchException extends RuntimeException {
+        private final long committedOffset;
+
+        public OffsetMismatchException(long committedOffset) {
+            super("Offset does not match the committed offset " + committedOffset);
+            this.committedOffset = committedOffset;
+        }
+
+        public long getCommittedOffset() {
+            return committedOffset;
+        }
+    }
+
+    public static class ChecksumMismatchException extends RuntimeException {
+        public ChecksumMismatchException(String message) {
+            super(message);
+        }
+    }
+}
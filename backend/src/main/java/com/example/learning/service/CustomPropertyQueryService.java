@@ -0,0 +1,101 @@
+package com.example.learning.service;
+
+import com.example.learning.config.DatabasePlatform;
+import com.example.learning.entity.Learning;
+import com.example.learning.repository.LearningRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Finds learnings whose customProperties JSON object contains all given
+ * key/value pairs (string values, exact match), for GET /learnings?prop.<key>=<value>.
+ * <ul>
+ * <li>PostgreSQL: jsonb {@code @>} containment, served by the GIN index from the V10 vendor migration</li>
+ * <li>H2: rows whose JSON text mentions the first key are parsed and checked in Java, then paged in memory</li>
+ * </ul>
+ */
+@Service
+public class CustomPropertyQueryService {
+
+    public static final String PARAM_PREFIX = "prop.";
+
+    private final LearningRepository learningRepository;
+    private final DatabasePlatform databasePlatform;
+    private final ObjectMapper objectMapper;
+
+    public CustomPropertyQueryService(LearningRepository learningRepository, DatabasePlatform databasePlatform,
+            ObjectMapper objectMapper) {
+        this.learningRepository = learningRepository;
+        this.databasePlatform = databasePlatform;
+        this.objectMapper = objectMapper;
+    }
+
+    public Page<Learning> findByProperties(Map<String, String> properties, Pageable pageable) {
+        try {
+            if (databasePlatform.isPostgres()) {
+                return learningRepository.findByCustomPropertiesContaining(
+                        objectMapper.writeValueAsString(properties), pageable);
+            }
+            return findByPropertiesInJava(properties, pageable);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private Page<Learning> findByPropertiesInJava(Map<String, String> properties, Pageable pageable)
+            throws JsonProcessingException {
+        String firstKey = properties.keySet().iterator().next();
+        String pattern = "%" + objectMapper.writeValueAsString(firstKey) + "%";
+        List<Long> ids = new ArrayList<>();
+        for (Object[] row : learningRepository.findCustomPropertiesLike(pattern)) {
+            if (matches((String) row[1], properties)) {
+                ids.add((Long) row[0]);
+            }
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        List<Long> pageIds = ids.subList(from, to);
+        Map<Long, Learning> byId = learningRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(Learning::getId, Function.identity()));
+        List<Learning> content = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Learning learning = byId.get(id);
+            if (learning != null) {
+                content.add(learning);
+            }
+        }
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+
+    // Same semantics as jsonb @> for a flat object of strings
+    private boolean matches(String json, Map<String, String> properties) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(json);
+        } catch (JsonProcessingException ex) {
+            return false;
+        }
+        if (node == null || !node.isObject()) {
+            return false;
+        }
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            JsonNode value = node.get(property.getKey());
+            if (value == null || !value.isTextual() || !value.asText().equals(property.getValue())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningRepository;
+import com.example.learning.repository.LearningTagRepository;
+import com.example.learning.search.LearningSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Facet counts for GET /learnings/facets: learnings per category, per tag and
+ * per month of their date.
+ * <p>
+ * Unscoped counts come from an in-memory cache that is built with grouped
+ * queries once and then adjusted by LearningChangedEvent (-1 for the values
+ * before, +1 for the values after a change). A periodic rebuild corrects any
+ * drift from events racing a rebuild. Counts scoped to a search term are
+ * aggregated in the database over the ids the search matches.
+ */
+@Service
+public class FacetService {
+
+    private static final Logger log = LoggerFactory.getLogger(FacetService.class);
+    // Keeps IN lists well below driver parameter limits
+    private static final int ID_BATCH_SIZE = 1000;
+
+    private final LearningRepository learningRepository;
+    private final LearningTagRepository learningTagRepository;
+    private final LearningSearchService learningSearchService;
+    private volatile Counts cached;
+
+    public FacetService(LearningRepository learningRepository, LearningTagRepository learningTagRepository,
+            LearningSearchService learningSearchService) {
+        this.learningRepository = learningRepository;
+        this.learningTagRepository = learningTagRepository;
+        this.learningSearchService = learningSearchService;
+    }
+
+    /**
+     * @param search    optional search term the counts are scoped to
+     * @param tagLimit  maximum number of tags returned, most used first
+     */
+    public Map<String, Object> getFacets(String search, int tagLimit) {
+        Counts counts;
+        if (search == null || search.isBlank()) {
+            if (cached == null) {
+                rebuild();
+            }
+            counts = cached;
+        } else {
+            counts = aggregate(learningSearchService.searchIds(search.trim()));
+        }
+        Map<String, Object> facets = new HashMap<>();
+        facets.put("categories", byCountDescending(counts.categories, Integer.MAX_VALUE));
+        facets.put("tags", byCountDescending(counts.tags, tagLimit));
+        Map<String, Long> months = new LinkedHashMap<>();
+        counts.months.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByKey().reversed())
+                .forEach(entry -> months.put(entry.getKey(), entry.getValue()));
+        facets.put("months", months);
+        return facets;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${learning.facets.refresh-interval:PT1H}",
+            fixedDelayString = "${learning.facets.refresh-interval:PT1H}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Counts counts = new Counts();
+        counts.addRows(counts.categories, learningRepository.countByCategory(), row -> (String) row[0]);
+        counts.addRows(counts.tags, learningTagRepository.countByTag(), row -> (String) row[0]);
+        counts.addRows(counts.months, learningRepository.countByMonth(), FacetService::monthKey);
+        cached = counts;
+        log.debug("Rebuilt facet counts in {} ms", System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningChanged(LearningChangedEvent event) {
+        Counts counts = cached;
+        if (counts == null) {
+            // Not built yet: the first request aggregates from the database anyway
+            return;
+        }
+        counts.add(event.getBefore(), -1);
+        counts.add(event.getAfter(), 1);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningBatchChanged(LearningBatchChangedEvent event) {
+        event.getChanges().forEach(this::onLearningChanged);
+    }
+
+    private Counts aggregate(List<Long> ids) {
+        Counts counts = new Counts();
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            Collection<Long> batch = ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size()));
+            counts.addRows(counts.categories, learningRepository.countByCategory(batch), row -> (String) row[0]);
+            counts.addRows(counts.tags, learningTagRepository.countByTag(batch), row -> (String) row[0]);
+            counts.addRows(counts.months, learningRepository.countByMonth(batch), FacetService::monthKey);
+        }
+        return counts;
+    }
+
+    private static Map<String, Long> byCountDescending(Map<String, Long> counts, int limit) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(Math.max(limit, 0))
+                .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return sorted;
+    }
+
+    // [year, month, count] -> "2024-05"
+    private static String monthKey(Object[] row) {
+        return YearMonth.of(((Number) row[0]).intValue(), ((Number) row[1]).intValue()).toString();
+    }
+
+    static class Counts {
+        final Map<String, Long> categories = new ConcurrentHashMap<>();
+        final Map<String, Long> tags = new ConcurrentHashMap<>();
+        final Map<String, Long> months = new ConcurrentHashMap<>();
+
+        void addRows(Map<String, Long> target, List<Object[]> rows, Function<Object[], String> key) {
+            for (Object[] row : rows) {
+                adjust(target, key.apply(row), ((Number) row[row.length - 1]).longValue());
+            }
+        }
+
+        void add(Learning learning, long delta) {
+            if (learning == null) {
+                return;
+            }
+            adjust(categories, learning.getCategory(), delta);
+            for (String tag : TagService.parseTags(learning.getTags())) {
+                adjust(tags, tag, delta);
+            }
+            LocalDate date = learning.getDate();
+            adjust(months, date != null ? YearMonth.from(date).toString() : null, delta);
+        }
+
+        private static void adjust(Map<String, Long> target, String key, long delta) {
+            if (key == null) {
+                return;
+            }
+            // Drop values that no learning has any more
+            target.compute(key, (k, count) -> {
+                long updated = (count == null ? 0 : count) + delta;
+                return updated > 0 ? updated : null;
+            });
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.learning.service;
+
+import com.example.learning.dto.LearningBatchRequest;
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies POST /learnings/batch: creates, updates and deletes in one
+ * transaction. Every item is validated first (JSON fields, ids that must
+ * exist). In atomic mode any invalid item rejects the whole batch; otherwise
+ * invalid items are reported and the rest is written.
+ * <p>
+ * Creates get their ids from the pooled learning_seq sequence, so Hibernate
+ * sends them as JDBC batches of {@code hibernate.jdbc.batch_size}. The
+ * persistence context is flushed and cleared every batch to keep memory flat.
+ * Deletes are a single bulk statement. Tags and attachment ref counts are
+ * reconciled in bulk within the same transaction, and a single
+ * LearningBatchChangedEvent carries all changes to the listeners after commit.
+ */
+@Service
+public class LearningBatchService {
+
+    private final LearningRepository learningRepository;
+    private final LearningValidator learningValidator;
+    private final TagService tagService;
+    private final AttachmentRefService attachmentRefService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final int maxItems;
+    private final int flushSize;
+
+    public LearningBatchService(LearningRepository learningRepository,
+            LearningValidator learningValidator,
+            TagService tagService,
+            AttachmentRefService attachmentRefService,
+            ApplicationEventPublisher eventPublisher,
+            EntityManager entityManager,
+            @Value("${learning.batch.max-items:5000}") int maxItems,
+            @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int flushSize) {
+        this.learningRepository = learningRepository;
+        this.learningValidator = learningValidator;
+        this.tagService = tagService;
+        this.attachmentRefService = attachmentRefService;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.maxItems = maxItems;
+        this.flushSize = Math.max(flushSize, 1);
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    @Transactional
+    public Result apply(LearningBatchRequest request, boolean atomic) {
+        Result result = new Result();
+
+        List<Learning> creates = new ArrayList<>();
+        for (int i = 0; i < request.getCreate().size(); i++) {
+            Learning learning = request.getCreate().get(i);
+            String error = learning == null ? "Learning is missing" : learningValidator.validate(learning);
+            if (error != null) {
+                result.addError("create", i, null, error);
+            } else {
+                learning.setId(null);
+                creates.add(learning);
+            }
+        }
+
+        Set<Long> deleteIds = new HashSet<>();
+        for (int i = 0; i < request.getDelete().size(); i++) {
+            Long id = request.getDelete().get(i);
+            if (id == null || !deleteIds.add(id)) {
+                result.addError("delete", i, id, id == null ? "id is required" : "Duplicate id");
+            }
+        }
+
+        Map<Long, Learning> updates = new LinkedHashMap<>();
+        for (int i = 0; i < request.getUpdate().size(); i++) {
+            Learning details = request.getUpdate().get(i);
+            Long id = details != null ? details.getId() : null;
+            String error = id == null ? "id is required" : learningValidator.validate(details);
+            if (error == null && (updates.containsKey(id) || deleteIds.contains(id))) {
+                error = "Learning is listed more than once";
+            }
+            if (error != null) {
+                result.addError("update", i, id, error);
+            } else {
+                updates.put(id, details);
+            }
+        }
+
+        // One query for every row that must exist
+        Set<Long> ids = new HashSet<>(updates.keySet());
+        ids.addAll(deleteIds);
+        Map<Long, Learning> existing = learningRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Learning::getId, Function.identity()));
+        for (int i = 0; i < request.getUpdate().size(); i++) {
+            Learning details = request.getUpdate().get(i);
+            if (details != null && updates.get(details.getId()) == details && !existing.containsKey(details.getId())) {
+                updates.remove(details.getId());
+                result.addError("update", i, details.getId(), "Learning not found");
+            }
+        }
+        for (int i = 0; i < request.getDelete().size(); i++) {
+            Long id = request.getDelete().get(i);
+            if (id != null && deleteIds.contains(id) && !existing.containsKey(id)) {
+                deleteIds.remove(id);
+                result.addError("delete", i, id, "Learning not found");
+            }
+        }
+
+        if (atomic && !result.errors.isEmpty()) {
+            return result;
+        }
+
+        List<LearningChangedEvent> changes = new ArrayList<>();
+        // Managed entities: dirty checking turns these into batched UPDATEs on flush
+        for (Map.Entry<Long, Learning> update : updates.entrySet()) {
+            Learning learning = existing.get(update.getKey());
+            Learning before = LearningChangedEvent.snapshot(learning);
+            copyFields(update.getValue(), learning);
+            changes.add(LearningChangedEvent.updated(before, learning));
+            result.updated.add(learning.getId());
+        }
+
+        if (!deleteIds.isEmpty()) {
+            for (Long id : deleteIds) {
+                changes.add(LearningChangedEvent.deleted(existing.get(id)));
+            }
+            learningRepository.deleteAllByIdInBatch(deleteIds);
+            result.deleted.addAll(deleteIds);
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        int pending = 0;
+        for (Learning learning : creates) {
+            entityManager.persist(learning);
+            changes.add(LearningChangedEvent.created(learning));
+            result.created.add(learning.getId());
+            if (++pending == flushSize) {
+                entityManager.flush();
+                entityManager.clear();
+                pending = 0;
+            }
+        }
+        entityManager.flush();
+
+        tagService.reconcile(changes);
+        attachmentRefService.adjust(changes);
+        if (!changes.isEmpty()) {
+            eventPublisher.publishEvent(new LearningBatchChangedEvent(changes));
+        }
+        result.applied = true;
+        return result;
+    }
+
+    // Same fields PUT /learnings/{id} replaces
+    private static void copyFields(Learning source, Learning target) {
+        target.setTitle(source.getTitle());
+        target.setDescription(source.getDescription());
+        target.setCategory(source.getCategory());
+        target.setDate(source.getDate());
+        target.setTags(source.getTags());
+        target.setAttachments(source.getAttachments());
+        target.setCustomProperties(source.getCustomProperties());
+    }
+
+    public static class Result {
+        private final List<Long> created = new ArrayList<>();
+        private final List<Long> updated = new ArrayList<>();
+        private final List<Long> deleted = new ArrayList<>();
+        private final List<Map<String, Object>> errors = new ArrayList<>();
+        private boolean applied;
+
+        private void addError(String operation, int index, Long id, String message) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("operation", operation);
+            error.put("index", index);
+            if (id != null) {
+                error.put("id", id);
+            }
+            error.put("error", message);
+            errors.add(error);
+        }
+
+        public List<Long> getCreated() {
+            return created;
+        }
+
+        public List<Long> getUpdated() {
+            return updated;
+        }
+
+        public List<Long> getDeleted() {
+            return deleted;
+        }
+
+        public List<Map<String, Object>> getErrors() {
+            return errors;
+        }
+
+        public boolean isApplied() {
+            return applied;
+        }
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.learning.service;
+
+import com.example.learning.dto.LearningSummary;
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.event.LearningChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events feed of committed learning changes (GET /learnings/changes).
+ * <p>
+ * Each change is serialized once and appended to a ring buffer of the last
+ * {@code learning.feed.history-size} events, then offered to every subscriber's
+ * bounded queue. The committing thread never writes to a socket: a small sender
+ * pool drains the queues. A subscriber whose queue is full is too slow and is
+ * disconnected; it reconnects with Last-Event-ID and is replayed from the ring
+ * buffer, or gets a {@code reset} event (refetch everything) when it has fallen
+ * further behind or the id is from before a restart.
+ * <p>
+ * Events: {@code created}/{@code updated} carry {"id", "learning": summary},
+ * {@code deleted} carries {"id"}. A batch write of more than
+ * {@code learning.feed.max-batch-events} learnings (an import batch) is sent as
+ * a single {@code reset}: event by event it would overflow every buffer and
+ * disconnect all subscribers at once.
+ */
+@Service
+public class LearningChangeFeed implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LearningChangeFeed.class);
+    private static final FeedEvent HEARTBEAT = new FeedEvent(0, null, null);
+
+    private final ObjectMapper objectMapper;
+    private final FeedEvent[] history;
+    private final int bufferSize;
+    private final int maxBatchEvents;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor sender;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    // Orders appends to the history with registrations, so nothing is missed or sent twice
+    private final ReentrantLock lock = new ReentrantLock();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private long lastSequence;
+    private final Counter dropped;
+
+    public LearningChangeFeed(ObjectMapper objectMapper,
+            @Value("${learning.feed.history-size:1024}") int historySize,
+            @Value("${learning.feed.buffer-size:256}") int bufferSize,
+            @Value("${learning.feed.max-batch-events:64}") int maxBatchEvents,
+            @Value("${learning.feed.max-subscribers:1000}") int maxSubscribers,
+            @Value("${learning.feed.timeout:30m}") Duration timeout,
+            @Value("${learning.feed.sender-threads:2}") int senderThreads,
+            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.history = new FeedEvent[Math.max(historySize, 1)];
+        this.bufferSize = Math.max(bufferSize, 1);
+        this.maxBatchEvents = Math.min(maxBatchEvents, this.bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("feed-sender-");
+        threadFactory.setDaemon(true);
+        // At most one drain task per subscriber is queued, so the queue is bounded by max-subscribers
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), threadFactory);
+        this.dropped = Counter.builder("learnings.feed.dropped")
+                .description("Subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("learnings.feed.subscribers", subscribers, Set::size)
+                .description("Open change feed connections")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens a subscription, replaying what happened after {@code lastEventId}.
+     *
+     * @throws RejectedExecutionException when max-subscribers are connected
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("Too many change feed subscribers");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+
+        lock.lock();
+        try {
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                List<FeedEvent> missed = eventsAfter(lastEventId.trim());
+                if (missed == null || missed.size() > bufferSize) {
+                    subscriber.queue.offer(new FeedEvent(lastSequence, "reset", "{}"));
+                } else {
+                    subscriber.queue.addAll(missed);
+                }
+            }
+            subscribers.add(subscriber);
+        } finally {
+            lock.unlock();
+        }
+        schedule(subscriber);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningChanged(LearningChangedEvent event) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("id", event.getLearningId());
+        if (event.getAfter() != null) {
+            data.put("learning", LearningSummary.of(event.getAfter()));
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(data);
+        } catch (JsonProcessingException ex) {
+            log.warn("Could not serialize change of learning {}", event.getLearningId(), ex);
+            return;
+        }
+        publish(event.getType().name().toLowerCase(Locale.ROOT), json);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningBatchChanged(LearningBatchChangedEvent event) {
+        if (event.getChanges().size() > maxBatchEvents) {
+            publish("reset", "{}");
+            return;
+        }
+        event.getChanges().forEach(this::onLearningChanged);
+    }
+
+    void publish(String name, String json) {
+        List<Subscriber> slow = new ArrayList<>();
+        lock.lock();
+        try {
+            FeedEvent event = new FeedEvent(++lastSequence, name, json);
+            history[(int) (event.sequence % history.length)] = event;
+            for (Subscriber subscriber : subscribers) {
+                if (!subscriber.queue.offer(event)) {
+                    slow.add(subscriber);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (Subscriber subscriber : slow) {
+            disconnect(subscriber);
+        }
+        subscribers.forEach(this::schedule);
+    }
+
+    // Keeps idle connections open through proxies and finds dead ones
+    @Scheduled(fixedDelayString = "${learning.feed.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    // null when the id is unknown: from another instance run, or overwritten in the ring buffer
+    private List<FeedEvent> eventsAfter(String lastEventId) {
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return null;
+        }
+        long sequence;
+        try {
+            sequence = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+        if (sequence > lastSequence || sequence < lastSequence - history.length) {
+            return null;
+        }
+        List<FeedEvent> missed = new ArrayList<>();
+        for (long next = sequence + 1; next <= lastSequence; next++) {
+            missed.add(history[(int) (next % history.length)]);
+        }
+        return missed;
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            dropped.increment();
+            subscriber.closed = true;
+            // The sender completes the emitter, so this thread never waits on a stuck write
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                sender.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException ex) {
+                // Shutting down
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            if (subscriber.closed) {
+                subscriber.queue.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+            FeedEvent event;
+            while ((event = subscriber.queue.poll()) != null) {
+                if (event == HEARTBEAT) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(epoch + "-" + event.sequence)
+                            .name(event.name)
+                            .data(event.data));
+                }
+            }
+        } catch (IOException | IllegalStateException ex) {
+            // Client went away; the emitter callbacks may not fire for a broken pipe
+            subscribers.remove(subscriber);
+            subscriber.closed = true;
+            subscriber.queue.clear();
+            subscriber.emitter.completeWithError(ex);
+            return;
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (!subscriber.queue.isEmpty() || subscriber.closed) {
+            schedule(subscriber);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+
+    private record FeedEvent(long sequence, String name, String data) {
+    }
+
+    private static class Subscriber {
+        final SseEmitter emitter;
+        final BlockingQueue<FeedEvent> queue;
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, int bufferSize) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
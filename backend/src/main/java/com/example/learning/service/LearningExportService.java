@@ -0,0 +1,70 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.repository.LearningRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Streams every learning to an output stream without materializing the table.
+ * Rows come from a database cursor (see LearningRepository.streamAll) and are
+ * detached right after being written, so heap use stays flat regardless of size.
+ */
+@Service
+public class LearningExportService {
+
+    public enum Format {
+        JSON, NDJSON
+    }
+
+    private final LearningRepository learningRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter rowWriter;
+
+    public LearningExportService(LearningRepository learningRepository, EntityManager entityManager,
+            ObjectMapper objectMapper) {
+        this.learningRepository = learningRepository;
+        this.entityManager = entityManager;
+        // Let the servlet buffer decide when to flush instead of flushing after every row
+        // NDJSON rows are separated by our own '\n', not Jackson's default root value separator (a space)
+        this.rowWriter = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+    }
+
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, Format format) throws IOException {
+        long count = 0;
+        try (Stream<Learning> learnings = learningRepository.streamAll();
+                JsonGenerator generator = rowWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (format == Format.JSON) {
+                generator.writeStartArray();
+            }
+            Iterator<Learning> iterator = learnings.iterator();
+            while (iterator.hasNext()) {
+                Learning learning = iterator.next();
+                rowWriter.writeValue(generator, learning);
+                if (format == Format.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+                entityManager.detach(learning);
+                count++;
+            }
+            if (format == Format.JSON) {
+                generator.writeEndArray();
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,544 @@
+package com.example.learning.service;
+
+import com.example.learning.dto.LearningBatchRequest;
+import com.example.learning.entity.ImportJob;
+import com.example.learning.entity.Learning;
+import com.example.learning.repository.ImportJobRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streaming import of learnings from CSV or NDJSON (the format GET
+ * /learnings/export produces).
+ * <p>
+ * The request body is copied to {@code <id>.data} under {@code file.import.path}
+ * and an ImportJob row is created; a single background thread then reads the
+ * file record by record and writes fixed-size batches through
+ * LearningBatchService. Each batch commits together with the job's progress
+ * (rowsRead), so heap use is bounded by one batch and a job that failed or was
+ * interrupted by a restart resumes after the last committed record. Invalid
+ * records are counted as failed and skipped; they don't stop the import. A
+ * batch the database rejects is retried row by row to find the bad records.
+ * <p>
+ * CSV needs a header row naming the columns (title, description, category,
+ * date, tags, attachments, customProperties); dates are ISO yyyy-MM-dd.
+ */
+@Service
+public class LearningImportService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LearningImportService.class);
+    private static final Set<String> FORMATS = Set.of("csv", "ndjson");
+    private static final int MAX_ERROR_LENGTH = 1000;
+    private static final int MAX_FILENAME_LENGTH = 255;
+
+    private final ImportJobRepository importJobRepository;
+    private final LearningBatchService learningBatchService;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final Path importLocation;
+    private final long maxFileSize;
+    private final int batchSize;
+    private final ThreadPoolExecutor executor;
+    // Jobs queued or running in this instance, so a job is never run twice at once
+    private final Set<String> activeJobs = ConcurrentHashMap.newKeySet();
+
+    public LearningImportService(ImportJobRepository importJobRepository,
+            LearningBatchService learningBatchService,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${file.import.path:imports}") String importPath,
+            @Value("${file.import.max-file-size:2GB}") DataSize maxFileSize,
+            @Value("${file.import.batch-size:500}") int batchSize,
+            @Value("${file.import.queue-capacity:10}") int queueCapacity) {
+        this.importJobRepository = importJobRepository;
+        this.learningBatchService = learningBatchService;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.importLocation = Paths.get(importPath).toAbsolutePath().normalize();
+        this.maxFileSize = maxFileSize.toBytes();
+        this.batchSize = Math.max(batchSize, 1);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("import-");
+        threadFactory.setDaemon(true);
+        // One import at a time: they compete for the same tables and the database is the bottleneck anyway
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        try {
+            Files.createDirectories(this.importLocation);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not create the directory for imports.", ex);
+        }
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return format != null && FORMATS.contains(format);
+    }
+
+    /**
+     * Stores the file and queues the import.
+     *
+     * @throws IllegalArgumentException   for an unknown format, a file name over 255 characters
+     *                                    or a file over the size limit
+     * @throws RejectedExecutionException when the import queue is full
+     */
+    public ImportJob start(String format, String filename, InputStream body) throws IOException {
+        if (!isSupportedFormat(format)) {
+            throw new IllegalArgumentException("format must be csv or ndjson");
+        }
+        if (executor.getQueue().remainingCapacity() == 0) {
+            // Don't accept a large upload that could not be queued anyway
+            throw new RejectedExecutionException("Import queue is full");
+        }
+        ImportJob job = store(format, filename, body);
+        try {
+            submit(job.getId());
+        } catch (RejectedExecutionException ex) {
+            importJobRepository.deleteById(job.getId());
+            Files.deleteIfExists(dataFile(job.getId()));
+            throw ex;
+        }
+        return job;
+    }
+
+    // Copies the file and creates its PENDING job without queuing it
+    ImportJob store(String format, String filename, InputStream body) throws IOException {
+        if (filename != null && filename.codePointCount(0, filename.length()) > MAX_FILENAME_LENGTH) {
+            throw new IllegalArgumentException("filename must be at most " + MAX_FILENAME_LENGTH + " characters");
+        }
+        String id = UUID.randomUUID().toString();
+        long size = copy(body, dataFile(id));
+        ImportJob job = new ImportJob(id, format, filename);
+        job.setBytesTotal(size);
+        try {
+            return importJobRepository.save(job);
+        } catch (RuntimeException ex) {
+            Files.deleteIfExists(dataFile(id));
+            throw ex;
+        }
+    }
+
+    public Optional<ImportJob> find(String id) {
+        return importJobRepository.findById(id);
+    }
+
+    /**
+     * Queues a failed job again; it continues after the last committed record.
+     *
+     * @throws IllegalStateException      if the job is completed or already queued
+     * @throws RejectedExecutionException when the import queue is full
+     */
+    public Optional<ImportJob> resume(String id) {
+        Optional<ImportJob> job = importJobRepository.findById(id);
+        job.ifPresent(found -> {
+            if (found.getStatus() == ImportJob.Status.COMPLETED || activeJobs.contains(id)) {
+                throw new IllegalStateException("Import is " + (activeJobs.contains(id)
+                        ? "already running" : "already completed"));
+            }
+            submit(id);
+        });
+        return job;
+    }
+
+    // Jobs that were running or waiting when the application stopped
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        for (ImportJob job : importJobRepository.findByStatusIn(
+                EnumSet.of(ImportJob.Status.PENDING, ImportJob.Status.RUNNING))) {
+            try {
+                log.info("Resuming import {} after record {}", job.getId(), job.getRowsRead());
+                submit(job.getId());
+            } catch (RejectedExecutionException ex) {
+                log.warn("Import queue full, import {} must be resumed manually", job.getId());
+            }
+        }
+    }
+
+    private void submit(String id) {
+        if (!activeJobs.add(id)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run(id);
+                } finally {
+                    activeJobs.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            activeJobs.remove(id);
+            throw ex;
+        }
+    }
+
+    /**
+     * Runs a job to completion on the calling thread.
+     */
+    void run(String id) {
+        ImportJob job = importJobRepository.findById(id).orElse(null);
+        if (job == null || job.getStatus() == ImportJob.Status.COMPLETED) {
+            return;
+        }
+        importJobRepository.updateStatus(id, ImportJob.Status.RUNNING, null, LocalDateTime.now());
+        Path file = dataFile(id);
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(file));
+                RecordReader records = "csv".equals(job.getFormat())
+                        ? new CsvRecordReader(in) : new NdjsonRecordReader(in)) {
+            long row = 0;
+            while (row < job.getRowsRead() && records.skip()) {
+                row++;
+            }
+
+            List<Learning> batch = new ArrayList<>(batchSize);
+            List<Long> batchRows = new ArrayList<>(batchSize);
+            long failed = 0;
+            long lastErrorRow = 0;
+            String lastError = null;
+            boolean more = true;
+            while (more) {
+                Learning learning = null;
+                try {
+                    learning = records.next();
+                    more = learning != null;
+                } catch (IllegalArgumentException ex) {
+                    failed++;
+                    lastErrorRow = row + 1;
+                    lastError = ex.getMessage();
+                }
+                if (more) {
+                    row++;
+                    if (learning != null && learning != RecordReader.BLANK) {
+                        batch.add(learning);
+                        batchRows.add(row);
+                    }
+                }
+                if (batch.size() == batchSize || (!more && (!batch.isEmpty() || failed > 0))
+                        || failed >= batchSize) {
+                    commit(id, batch, batchRows, row, in.getCount(), failed, lastErrorRow, lastError);
+                    batch.clear();
+                    batchRows.clear();
+                    failed = 0;
+                    lastErrorRow = 0;
+                    lastError = null;
+                }
+            }
+            importJobRepository.updateStatus(id, ImportJob.Status.COMPLETED, null, LocalDateTime.now());
+            Files.deleteIfExists(file);
+            log.info("Import {} completed after {} records", id, row);
+        } catch (IOException | RuntimeException ex) {
+            // Progress up to the last committed batch is kept; resume continues from there
+            log.warn("Import {} failed", id, ex);
+            importJobRepository.updateStatus(id, ImportJob.Status.FAILED,
+                    truncate(ex.getMessage() != null ? ex.getMessage() : ex.toString()), LocalDateTime.now());
+        }
+    }
+
+    private void commit(String id, List<Learning> batch, List<Long> batchRows, long rowsRead, long bytesRead,
+            long parseFailures, long parseErrorRow, String parseError) {
+        try {
+            commitBatch(id, batch, batchRows, rowsRead, bytesRead, parseFailures, parseErrorRow, parseError);
+        } catch (RuntimeException ex) {
+            if (batch.isEmpty() || !isRowError(ex)) {
+                throw ex;
+            }
+            log.debug("Import {} batch ending at row {} was rejected, retrying its rows one by one", id, rowsRead, ex);
+            commitRowByRow(id, batch, batchRows, rowsRead, bytesRead, parseFailures, parseErrorRow, parseError);
+        }
+    }
+
+    // Each row commits with the progress up to it, so a resume never writes a row twice
+    private void commitRowByRow(String id, List<Learning> batch, List<Long> batchRows, long rowsRead, long bytesRead,
+            long parseFailures, long parseErrorRow, String parseError) {
+        long rejected = 0;
+        long rejectedRow = 0;
+        String rejectedError = null;
+        for (int i = 0; i < batch.size(); i++) {
+            long row = batchRows.get(i);
+            try {
+                commitBatch(id, List.of(batch.get(i)), List.of(row), row, bytesRead, rejected, rejectedRow,
+                        rejectedError);
+                rejected = 0;
+                rejectedRow = 0;
+                rejectedError = null;
+            } catch (RuntimeException ex) {
+                if (!isRowError(ex)) {
+                    throw ex;
+                }
+                rejected++;
+                rejectedRow = row;
+                rejectedError = NestedExceptionUtils.getMostSpecificCause(ex).getMessage();
+            }
+        }
+        // Parse failures may lie anywhere in the batch, so they are only counted once all of it is read
+        boolean rejectedLast = rejectedRow > parseErrorRow;
+        commitBatch(id, List.of(), List.of(), rowsRead, bytesRead, parseFailures + rejected,
+                rejectedLast ? rejectedRow : parseErrorRow, rejectedLast ? rejectedError : parseError);
+    }
+
+    private void commitBatch(String id, List<Learning> batch, List<Long> batchRows, long rowsRead, long bytesRead,
+            long parseFailures, long parseErrorRow, String parseError) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LearningBatchRequest request = new LearningBatchRequest();
+            request.getCreate().addAll(batch);
+            LearningBatchService.Result result = learningBatchService.apply(request, false);
+            // Report the error of the highest row in this batch
+            long lastErrorRow = parseErrorRow;
+            String lastError = parseError;
+            for (Map<String, Object> error : result.getErrors()) {
+                long row = batchRows.get((Integer) error.get("index"));
+                if (row > lastErrorRow) {
+                    lastErrorRow = row;
+                    lastError = (String) error.get("error");
+                }
+            }
+            importJobRepository.recordProgress(id, rowsRead, bytesRead, result.getCreated().size(),
+                    parseFailures + result.getErrors().size(),
+                    lastError != null ? rowError(lastErrorRow, lastError) : null, LocalDateTime.now());
+        });
+    }
+
+    // The database refused the data (constraint, value too long), as opposed to being unavailable
+    private static boolean isRowError(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+                    && (sqlException.getSQLState().startsWith("22") || sqlException.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long copy(InputStream body, Path file) throws IOException {
+        long size = 0;
+        byte[] buffer = new byte[64 * 1024];
+        try (var out = Files.newOutputStream(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                size += read;
+                if (size > maxFileSize) {
+                    throw new IllegalArgumentException("Import file exceeds the maximum size of " + maxFileSize + " bytes");
+                }
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(file);
+            throw ex;
+        }
+        return size;
+    }
+
+    private Path dataFile(String id) {
+        return importLocation.resolve(id + ".data");
+    }
+
+    private static String rowError(long row, String message) {
+        return truncate("Row " + row + ": " + message);
+    }
+
+    private static String truncate(String message) {
+        return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+    }
+
+    @Override
+    public void destroy() {
+        // Interrupted jobs stay RUNNING and are resumed on the next start
+        executor.shutdownNow();
+    }
+
+    /**
+     * One learning per record. next() returns null at the end of input,
+     * {@link #BLANK} for an empty record and throws IllegalArgumentException
+     * for a record that can't be mapped (the reader stays usable).
+     */
+    private interface RecordReader extends AutoCloseable {
+        Learning BLANK = new Learning();
+
+        Learning next() throws IOException;
+
+        boolean skip() throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private class NdjsonRecordReader implements RecordReader {
+        private final BufferedReader reader;
+
+        NdjsonRecordReader(InputStream in) {
+            this.reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public Learning next() throws IOException {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            if (line.isBlank()) {
+                return BLANK;
+            }
+            try {
+                return objectMapper.readValue(line, Learning.class);
+            } catch (JsonProcessingException ex) {
+                throw new IllegalArgumentException("Invalid JSON: " + ex.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public boolean skip() throws IOException {
+            return reader.readLine() != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static class CsvRecordReader implements RecordReader {
+        private static final List<String> COLUMNS = List.of("title", "description", "category", "date",
+                "tags", "attachments", "customproperties");
+
+        private final CsvReader reader;
+        private final int[] columns; // record position -> index in COLUMNS
+
+        CsvRecordReader(InputStream in) throws IOException {
+            this.reader = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV file is empty");
+            }
+            columns = new int[header.size()];
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).strip().toLowerCase(Locale.ROOT);
+                if (i == 0 && name.startsWith("\uFEFF")) {
+                    name = name.substring(1);
+                }
+                columns[i] = COLUMNS.indexOf(name);
+                if (columns[i] < 0) {
+                    throw new IllegalArgumentException("Unknown CSV column: " + header.get(i));
+                }
+            }
+        }
+
+        @Override
+        public Learning next() throws IOException {
+            List<String> fields = reader.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                return BLANK;
+            }
+            if (fields.size() != columns.length) {
+                throw new IllegalArgumentException("Expected " + columns.length + " fields but found " + fields.size());
+            }
+            Learning learning = new Learning();
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).isEmpty() ? null : fields.get(i);
+                switch (columns[i]) {
+                    case 0 -> learning.setTitle(value);
+                    case 1 -> learning.setDescription(value);
+                    case 2 -> learning.setCategory(value);
+                    case 3 -> learning.setDate(parseDate(value));
+                    case 4 -> learning.setTags(value);
+                    case 5 -> learning.setAttachments(value);
+                    default -> learning.setCustomProperties(value);
+                }
+            }
+            return learning;
+        }
+
+        private static LocalDate parseDate(String value) {
+            try {
+                return value != null ? LocalDate.parse(value.strip()) : null;
+            } catch (DateTimeParseException ex) {
+                throw new IllegalArgumentException("Invalid date: " + value);
+            }
+        }
+
+        @Override
+        public boolean skip() throws IOException {
+            return reader.readRecord() != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    // Bytes handed to the decoder; runs up to one buffer ahead of the parsed records
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
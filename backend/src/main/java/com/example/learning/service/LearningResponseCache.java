@@ -0,0 +1,147 @@
+package com.example.learning.service;
+
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.event.LearningChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serialized GET /learnings responses, keyed by user and query parameters.
+ * <p>
+ * Every committed create, update or delete bumps a global data version and
+ * drops all entries, so a cached page is never older than the data. The
+ * version is also the page's weak ETag: a matching If-None-Match is answered
+ * with 304 before any query runs. The ETag includes the start time of this
+ * instance, so tags handed out before a restart never match.
+ * <p>
+ * Entries are bounded by total size and age. Hits and misses are published as
+ * cache.gets{cache=learning-pages}, 304s as learnings.cache.not-modified.
+ */
+@Component
+public class LearningResponseCache {
+
+    private final Cache<String, byte[]> cache;
+    private final ObjectMapper objectMapper;
+    private final AtomicLong version = new AtomicLong();
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Counter notModified;
+
+    public LearningResponseCache(ObjectMapper objectMapper,
+            @Value("${learning.response-cache.max-size:32MB}") DataSize maxSize,
+            @Value("${learning.response-cache.ttl:10m}") Duration ttl,
+            MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<String, byte[]>weigher((key, body) -> key.length() * 2 + body.length)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "learning-pages");
+        this.notModified = Counter.builder("learnings.cache.not-modified")
+                .description("GET /learnings revalidations answered with 304")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Read before loading a page, so a change committed meanwhile makes the
+     * stored entry unreachable instead of stale.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public String etag(long version) {
+        return "W/\"" + epoch + "-" + version + "\"";
+    }
+
+    /**
+     * If-None-Match comparison (weak, as for GET); counts a 304 when it matches.
+     */
+    public boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaque = etag.substring(2);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(opaque)) {
+                notModified.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String key(Authentication authentication, Map<String, String[]> parameters) {
+        StringBuilder key = new StringBuilder(authentication != null ? authentication.getName() : "");
+        // Sorted, so the order of query parameters doesn't split entries
+        new TreeMap<>(parameters).forEach((name, values) -> {
+            for (String value : values) {
+                key.append('&').append(name).append('=').append(value);
+            }
+        });
+        return key.toString();
+    }
+
+    public byte[] get(String key, long version) {
+        return cache.getIfPresent(version + ":" + key);
+    }
+
+    /**
+     * Serializes a response and stores it for this version.
+     *
+     * @return the JSON body to send
+     */
+    public byte[] put(String key, long version, Object response) {
+        byte[] body = serialize(response);
+        if (version == this.version.get()) {
+            cache.put(version + ":" + key, body);
+        }
+        return body;
+    }
+
+    /**
+     * Serializes a response that must not be cached.
+     */
+    public byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize response", ex);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningChanged(LearningChangedEvent event) {
+        invalidate();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLearningBatchChanged(LearningBatchChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.Learning;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Checks a learning before it is written. attachments and customProperties
+ * are jsonb on PostgreSQL, so malformed JSON would fail the insert; title,
+ * category and tags are VARCHAR(255) since V1.
+ */
+@Component
+public class LearningValidator {
+
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+
+    public LearningValidator(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Stores blank JSON fields as null and validates the rest.
+     *
+     * @return an error message for the first invalid field, or null
+     */
+    public String validate(Learning learning) {
+        if (learning.getAttachments() != null && learning.getAttachments().isBlank()) {
+            learning.setAttachments(null);
+        }
+        if (learning.getCustomProperties() != null && learning.getCustomProperties().isBlank()) {
+            learning.setCustomProperties(null);
+        }
+        if (isTooLong(learning.getTitle())) {
+            return "title must be at most " + MAX_COLUMN_LENGTH + " characters";
+        }
+        if (isTooLong(learning.getCategory())) {
+            return "category must be at most " + MAX_COLUMN_LENGTH + " characters";
+        }
+        if (isTooLong(learning.getTags())) {
+            return "tags must be at most " + MAX_COLUMN_LENGTH + " characters";
+        }
+        if (!isValidJson(learning.getAttachments())) {
+            return "attachments must be valid JSON";
+        }
+        if (!isValidJson(learning.getCustomProperties())) {
+            return "customProperties must be valid JSON";
+        }
+        return null;
+    }
+
+    // VARCHAR counts characters, not UTF-16 units
+    private static boolean isTooLong(String value) {
+        return value != null && value.codePointCount(0, value.length()) > MAX_COLUMN_LENGTH;
+    }
+
+    private boolean isValidJson(String value) {
+        if (value == null) {
+            return true;
+        }
+        try {
+            objectMapper.readTree(value);
+            return true;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+}
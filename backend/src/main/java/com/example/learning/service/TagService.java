@@ -0,0 +1,173 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.entity.LearningTag;
+import com.example.learning.entity.Tag;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningTagRepository;
+import com.example.learning.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the normalized tag/learning_tag tables in step with the comma
+ * separated Learning.tags column, so tag filters can use an index instead of
+ * scanning the tags text. The join rows of a learning are reconciled against
+ * its current tags on every LearningChangedEvent, after the learning's
+ * transaction commits. Batch writes reconcile all their learnings at once,
+ * within the batch's transaction ({@link #reconcile(Collection)}).
+ */
+@Service
+public class TagService {
+
+    // Matches the tag.name column
+    private static final int MAX_TAG_LENGTH = 255;
+    // Keeps IN lists well below driver parameter limits
+    private static final int ID_BATCH_SIZE = 1000;
+
+    private final TagRepository tagRepository;
+    private final LearningTagRepository learningTagRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate newTagTransaction;
+
+    public TagService(TagRepository tagRepository, LearningTagRepository learningTagRepository,
+            EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        this.tagRepository = tagRepository;
+        this.learningTagRepository = learningTagRepository;
+        this.entityManager = entityManager;
+        this.newTagTransaction = new TransactionTemplate(transactionManager);
+        this.newTagTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onLearningChanged(LearningChangedEvent event) {
+        Long learningId = event.getLearningId();
+        if (learningId == null) {
+            return;
+        }
+        Learning after = event.getAfter();
+        Set<String> wanted = parseTags(after != null ? after.getTags() : null);
+        Set<String> current = new HashSet<>(learningTagRepository.findTagNamesByLearningId(learningId));
+
+        Set<String> removed = new HashSet<>(current);
+        removed.removeAll(wanted);
+        if (!removed.isEmpty()) {
+            learningTagRepository.deleteByLearningIdAndTagNames(learningId, removed);
+        }
+        for (String name : wanted) {
+            if (!current.contains(name)) {
+                learningTagRepository.save(new LearningTag(learningId, resolveTagId(name)));
+            }
+        }
+    }
+
+    /**
+     * Reconciles the join rows of a batch of changes in the caller's transaction:
+     * one query for the current rows and one for the known tags, instead of a
+     * transaction per learning. New rows are persisted, so they are inserted in
+     * JDBC batches on flush.
+     */
+    @Transactional
+    public void reconcile(Collection<LearningChangedEvent> changes) {
+        Map<Long, Set<String>> wanted = new HashMap<>();
+        Set<String> names = new HashSet<>();
+        for (LearningChangedEvent change : changes) {
+            if (change.getLearningId() != null) {
+                Learning after = change.getAfter();
+                Set<String> tags = parseTags(after != null ? after.getTags() : null);
+                wanted.put(change.getLearningId(), tags);
+                names.addAll(tags);
+            }
+        }
+
+        Map<Long, Set<String>> current = new HashMap<>();
+        List<Long> ids = new ArrayList<>(wanted.keySet());
+        for (int from = 0; from < ids.size(); from += ID_BATCH_SIZE) {
+            for (Object[] row : learningTagRepository.findTagNamesByLearningIds(
+                    ids.subList(from, Math.min(from + ID_BATCH_SIZE, ids.size())))) {
+                current.computeIfAbsent((Long) row[0], id -> new HashSet<>()).add((String) row[1]);
+            }
+        }
+        Map<String, Long> tagIds = new HashMap<>();
+        List<String> tagNames = new ArrayList<>(names);
+        for (int from = 0; from < tagNames.size(); from += ID_BATCH_SIZE) {
+            for (Tag tag : tagRepository.findByNameIn(tagNames.subList(from,
+                    Math.min(from + ID_BATCH_SIZE, tagNames.size())))) {
+                tagIds.put(tag.getName(), tag.getId());
+            }
+        }
+
+        for (Map.Entry<Long, Set<String>> entry : wanted.entrySet()) {
+            Long learningId = entry.getKey();
+            Set<String> existing = current.getOrDefault(learningId, Set.of());
+            Set<String> removed = new HashSet<>(existing);
+            removed.removeAll(entry.getValue());
+            if (!removed.isEmpty()) {
+                learningTagRepository.deleteByLearningIdAndTagNames(learningId, removed);
+            }
+            for (String name : entry.getValue()) {
+                if (!existing.contains(name)) {
+                    entityManager.persist(new LearningTag(learningId, tagIds.computeIfAbsent(name,
+                            this::resolveTagId)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits a comma separated tag list into normalized names: trimmed, lower
+     * case, without blanks or duplicates. Used for stored tags and for the
+     * {@code tags} filter of GET /learnings alike.
+     */
+    public static Set<String> parseTags(String tags) {
+        Set<String> names = new LinkedHashSet<>();
+        if (tags == null) {
+            return names;
+        }
+        for (String tag : tags.split(",")) {
+            String name = tag.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty() && name.length() <= MAX_TAG_LENGTH) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    public static Set<String> parseTags(Collection<String> tagParams) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String param : tagParams) {
+            names.addAll(parseTags(param));
+        }
+        return names;
+    }
+
+    private Long resolveTagId(String name) {
+        return tagRepository.findByName(name).map(Tag::getId).orElseGet(() -> {
+            try {
+                // Own transaction: a unique violation must not roll back the caller
+                return newTagTransaction.execute(status -> tagRepository.saveAndFlush(new Tag(name)).getId());
+            } catch (DataIntegrityViolationException ex) {
+                // Created concurrently by another learning
+                return tagRepository.findByName(name).orElseThrow(() -> ex).getId();
+            }
+        });
+    }
+}
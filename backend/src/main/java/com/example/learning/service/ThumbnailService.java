@@ -0,0 +1,249 @@
+package com.example.learning.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Generates downscaled preview variants of uploaded images in the background.
+ * Variants are stored next to the original as {@code <name>_w<width><ext>} and
+ * are named up front, so the upload response can list them in the attachment
+ * JSON before they exist; AttachmentController serves the original (uncached)
+ * for a variant that is not ready yet. Images no wider than a variant are
+ * hard-linked instead of re-encoded.
+ * <p>
+ * Work runs on a small bounded pool; when its queue is full the request is
+ * dropped (thumbnails.rejected) and the original keeps being served.
+ */
+@Service
+public class ThumbnailService implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+    private static final Pattern VARIANT_NAME = Pattern.compile("(.+)_w(\\d+)(\\.[A-Za-z0-9]+)");
+    private static final List<String> IMAGE_EXTENSIONS = List.of(".png", ".jpg", ".jpeg", ".gif", ".bmp");
+
+    private final AttachmentStorageService attachmentStorageService;
+    private final List<Integer> widths;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+    private final Timer resizeTimer;
+
+    public ThumbnailService(AttachmentStorageService attachmentStorageService,
+            @Value("${file.upload.thumbnails.widths:160,480}") List<Integer> widths,
+            @Value("${file.upload.thumbnails.threads:2}") int threads,
+            @Value("${file.upload.thumbnails.queue-capacity:100}") int queueCapacity,
+            @Value("${file.upload.thumbnails.max-pixels:25000000}") long maxPixels,
+            MeterRegistry meterRegistry) {
+        this.attachmentStorageService = attachmentStorageService;
+        this.widths = List.copyOf(widths);
+        this.maxPixels = maxPixels;
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("thumbnail-");
+        threadFactory.setDaemon(true);
+        // Resizing is CPU heavy and never urgent: low priority, few threads
+        threadFactory.setThreadPriority(Thread.MIN_PRIORITY);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.rejected = Counter.builder("thumbnails.rejected")
+                .description("Thumbnail jobs dropped because the queue was full")
+                .register(meterRegistry);
+        this.resizeTimer = Timer.builder("thumbnails.generation")
+                .description("Time to generate all variants of one image")
+                .register(meterRegistry);
+    }
+
+    public boolean isSupported(String fileName) {
+        return !widths.isEmpty() && IMAGE_EXTENSIONS.contains(extensionOf(fileName));
+    }
+
+    /**
+     * Queues variant generation for a stored upload and returns the variant
+     * file names keyed by {@code w<width>}, or an empty map for non-images.
+     */
+    public Map<String, String> submit(String fileName) {
+        if (!isSupported(fileName)) {
+            return Map.of();
+        }
+        Map<String, String> variants = variantNames(fileName);
+        try {
+            executor.execute(() -> resizeTimer.record(() -> generate(fileName)));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            log.warn("Thumbnail queue full, serving {} without previews for now", fileName);
+        }
+        return variants;
+    }
+
+    public Map<String, String> variantNames(String fileName) {
+        Map<String, String> variants = new LinkedHashMap<>();
+        if (!isSupported(fileName)) {
+            return variants;
+        }
+        String extension = fileName.substring(fileName.lastIndexOf('.'));
+        String base = fileName.substring(0, fileName.lastIndexOf('.'));
+        for (int width : widths) {
+            variants.put("w" + width, base + "_w" + width + extension);
+        }
+        return variants;
+    }
+
+    /**
+     * Name of the original a variant was generated from, or null if
+     * {@code fileName} is not a variant name.
+     */
+    public static String originalOf(String fileName) {
+        Matcher matcher = VARIANT_NAME.matcher(fileName);
+        return matcher.matches() ? matcher.group(1) + matcher.group(3) : null;
+    }
+
+    void generate(String fileName) {
+        Path original = attachmentStorageService.getUploadLocation().resolve(fileName);
+        try {
+            BufferedImage image = read(original);
+            if (image == null) {
+                return;
+            }
+            for (Map.Entry<String, String> variant : variantNames(fileName).entrySet()) {
+                Path target = original.resolveSibling(variant.getValue());
+                if (Files.exists(target)) {
+                    // Deduplicated upload: variants were made the first time
+                    continue;
+                }
+                int width = Integer.parseInt(variant.getKey().substring(1));
+                if (image.getWidth() <= width) {
+                    link(original, target);
+                } else {
+                    write(resize(image, width), extensionOf(fileName), target);
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            log.warn("Could not generate previews for {}", fileName, ex);
+        }
+    }
+
+    private BufferedImage read(Path file) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Check the header before decoding, so a small file can't claim gigapixels of heap
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    log.info("Skipping previews for {}: image too large", file.getFileName());
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    static BufferedImage resize(BufferedImage source, int targetWidth) {
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        // Halve step by step: a single bilinear pass from far above the target size aliases badly
+        do {
+            width = Math.max(targetWidth, width / 2);
+            int height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (width != targetWidth);
+        return current;
+    }
+
+    private static void write(BufferedImage image, String extension, Path target) throws IOException {
+        String format = extension.equals(".jpeg") ? "jpg" : extension.substring(1);
+        Path temp = Files.createTempFile(target.getParent(), ".thumb-", extension);
+        try {
+            // JPEG and BMP writers refuse an alpha channel: flatten and try again
+            if (!ImageIO.write(image, format, temp.toFile()) && (!image.getColorModel().hasAlpha()
+                    || !ImageIO.write(withoutAlpha(image), format, temp.toFile()))) {
+                log.warn("No {} writer accepts the preview {}, skipping it", format, target.getFileName());
+                return;
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException ex) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static BufferedImage withoutAlpha(BufferedImage image) {
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        try {
+            // Transparent pixels become white, as most viewers show them
+            graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return rgb;
+    }
+
+    private static void link(Path original, Path target) throws IOException {
+        try {
+            Files.createLink(target, original);
+        } catch (FileAlreadyExistsException ex) {
+            // Generated concurrently
+        } catch (UnsupportedOperationException | IOException ex) {
+            Files.copy(original, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static String extensionOf(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot < 0 ? "" : fileName.substring(dot).toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.learning.sql;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * SQL executed on behalf of one request: statements, time spent in JDBC and
+ * rows read. Bound to the request thread by {@link SqlStatisticsFilter} and
+ * filled in by {@link SqlStatisticsListener}; work handed to another pool is
+ * counted only when it is submitted through one of the {@code wrap} methods.
+ */
+public final class SqlStatistics {
+
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final Map<String, AtomicInteger> executions = new ConcurrentHashMap<>();
+
+    /**
+     * Statistics of the request running on this thread, or null outside requests
+     * (startup, scheduled jobs, imports).
+     */
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return the statistics bound before, to be passed to {@link #restore}
+     */
+    static SqlStatistics bind(SqlStatistics statistics) {
+        SqlStatistics previous = CURRENT.get();
+        CURRENT.set(statistics);
+        return previous;
+    }
+
+    static void restore(SqlStatistics previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Counts the SQL of a task run on another thread toward the calling request.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        SqlStatistics statistics = current();
+        if (statistics == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatistics previous = bind(statistics);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Counts the SQL of a CompletableFuture stage toward the calling request; stages
+     * run on whichever thread completed the previous one.
+     */
+    public static <T, R> Function<T, R> wrap(Function<T, R> stage) {
+        SqlStatistics statistics = current();
+        if (statistics == null) {
+            return stage;
+        }
+        return value -> {
+            SqlStatistics previous = bind(statistics);
+            try {
+                return stage.apply(value);
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    void recordExecution(String sql, long elapsedNanos) {
+        statements.incrementAndGet();
+        nanos.addAndGet(elapsedNanos);
+        executions.computeIfAbsent(sql, key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    void recordRow() {
+        rows.incrementAndGet();
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    public long getTimeNanos() {
+        return nanos.get();
+    }
+
+    public long getTimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(nanos.get());
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    /**
+     * Statements executed at least {@code threshold} times, the usual sign of a
+     * lazy association or repository call inside a loop (N+1).
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        executions.forEach((sql, count) -> {
+            if (count.get() >= threshold) {
+                repeated.put(sql, count.get());
+            }
+        });
+        return repeated;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.learning.sql;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Routes all JDBC access through datasource-proxy so statements, their time and
+ * the rows read can be attributed to the request that caused them. Costs a
+ * proxy call per JDBC and ResultSet method; {@code learning.sql-stats.enabled=false}
+ * leaves the DataSource unwrapped.
+ */
+@Configuration
+@ConditionalOnProperty(name = "learning.sql-stats.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlStatisticsConfig {
+
+    @Bean
+    public SqlStatisticsListener sqlStatisticsListener(
+            @Value("${learning.sql-stats.slow-threshold:500ms}") Duration slowThreshold,
+            @Value("${learning.sql-stats.redacted-tables:users}") List<String> redactedTables,
+            MeterRegistry meterRegistry) {
+        return new SqlStatisticsListener(slowThreshold, redactedTables, meterRegistry);
+    }
+
+    // Static, so wrapping the DataSource doesn't initialize this configuration early
+    @Bean
+    public static BeanPostProcessor sqlStatisticsDataSourceWrapper(ObjectProvider<SqlStatisticsListener> listener) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Routing and lazy DataSources delegate to pools that are wrapped themselves
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)
+                        && !(bean instanceof DelegatingDataSource) && !(bean instanceof AbstractRoutingDataSource)) {
+                    SqlStatisticsListener sqlStatisticsListener = listener.getObject();
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(sqlStatisticsListener)
+                            // ResultSet calls pass the listener too, to count rows
+                            .methodListener(sqlStatisticsListener)
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlStatisticsFilter> sqlStatisticsFilter(
+            @Value("${learning.sql-stats.repeated-statement-threshold:10}") int repeatedStatementThreshold,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SqlStatisticsFilter> registration = new FilterRegistrationBean<>(
+                new SqlStatisticsFilter(meterRegistry, repeatedStatementThreshold));
+        // Right after the concurrency limit, so the user lookup in the JWT filter counts too
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.learning.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds a {@link SqlStatistics} to every request (again on async dispatches, so
+ * CompletableFuture endpoints keep adding to it) and publishes it when the
+ * request completes: sql.request.statements, sql.request.time and
+ * sql.request.rows tagged with the matched route. Statements repeated at least
+ * {@code learning.sql-stats.repeated-statement-threshold} times are logged as a
+ * likely N+1 and counted as sql.n-plus-one.
+ */
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String ATTRIBUTE = SqlStatistics.class.getName();
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatisticsFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatedStatementThreshold;
+
+    public SqlStatisticsFilter(MeterRegistry meterRegistry, int repeatedStatementThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @org.springframework.lang.NonNull HttpServletRequest request,
+            @org.springframework.lang.NonNull HttpServletResponse response,
+            @org.springframework.lang.NonNull FilterChain filterChain)
+            throws ServletException, IOException {
+
+        SqlStatistics statistics = (SqlStatistics) request.getAttribute(ATTRIBUTE);
+        if (statistics == null) {
+            statistics = new SqlStatistics();
+            request.setAttribute(ATTRIBUTE, statistics);
+        }
+        SqlStatistics previous = SqlStatistics.bind(statistics);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlStatistics.restore(previous);
+            if (!request.isAsyncStarted()) {
+                publish(request, statistics);
+            }
+        }
+    }
+
+    private void publish(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("sql.request.statements")
+                .description("SQL statements executed per request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder("sql.request.time")
+                .description("Time spent in JDBC per request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getTimeNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("sql.request.rows")
+                .description("Result set rows read per request")
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(statistics.getRows());
+
+        Map<String, Integer> repeated = statistics.getRepeatedStatements(repeatedStatementThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("sql.n-plus-one")
+                    .description("Requests that repeated a statement learning.sql-stats.repeated-statement-threshold times")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+            repeated.forEach((sql, count) ->
+                    log.warn("Possible N+1 in {} {}: executed {} times: {}", request.getMethod(), uri, count, sql));
+        }
+    }
+}
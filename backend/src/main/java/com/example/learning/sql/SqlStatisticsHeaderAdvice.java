@@ -0,0 +1,39 @@
+package com.example.learning.sql;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Debugging aid: adds X-SQL-Statements, X-SQL-Time-Ms and X-SQL-Rows to
+ * responses with a body, counted up to the moment the body is written. Enabled
+ * with {@code learning.sql-stats.response-headers=true}; query budget tests rely
+ * on it.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(name = "learning.sql-stats.response-headers", havingValue = "true")
+public class SqlStatisticsHeaderAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request, ServerHttpResponse response) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            response.getHeaders().set("X-SQL-Statements", Long.toString(statistics.getStatements()));
+            response.getHeaders().set("X-SQL-Time-Ms", Long.toString(statistics.getTimeMillis()));
+            response.getHeaders().set("X-SQL-Rows", Long.toString(statistics.getRows()));
+        }
+        return body;
+    }
+}
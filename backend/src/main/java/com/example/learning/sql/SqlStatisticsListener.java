@@ -0,0 +1,128 @@
+package com.example.learning.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Receives every statement and ResultSet call from the proxied DataSource:
+ * adds them to the current request's {@link SqlStatistics} and logs statements
+ * slower than {@code learning.sql-stats.slow-threshold} with their bind
+ * parameters (counted as sql.slow). Parameters of statements touching one of
+ * {@code learning.sql-stats.redacted-tables} (password hashes, emails) are not logged.
+ */
+public class SqlStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlStatisticsListener.class);
+    private static final String START = SqlStatisticsListener.class.getName() + ".start";
+    // Keeps a slow batch insert from logging thousands of rows
+    private static final int MAX_LOGGED_PARAMETER_SETS = 10;
+    private static final int MAX_LOGGED_VALUE_LENGTH = 100;
+
+    private final long slowThresholdNanos;
+    private final Pattern redactedTables;
+    private final Counter slow;
+
+    public SqlStatisticsListener(Duration slowThreshold, Collection<String> redactedTables,
+            MeterRegistry meterRegistry) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        // Whole table names only: "users" but not "users_archive"
+        String tables = redactedTables.stream()
+                .filter(table -> !table.isBlank())
+                .map(table -> Pattern.quote(table.trim()))
+                .collect(Collectors.joining("|"));
+        this.redactedTables = tables.isEmpty() ? null
+                : Pattern.compile("\\b(?:" + tables + ")\\b", Pattern.CASE_INSENSITIVE);
+        this.slow = Counter.builder("sql.slow")
+                .description("Statements slower than learning.sql-stats.slow-threshold")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        // ExecutionInfo.getElapsedTime is in whole milliseconds, too coarse to sum up
+        execInfo.addCustomValue(START, System.nanoTime());
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Long start = execInfo.getCustomValue(START, Long.class);
+        long elapsed = start != null ? System.nanoTime() - start : 0;
+        String sql = queryInfoList.size() == 1 ? queryInfoList.get(0).getQuery()
+                : String.join("; ", queryInfoList.stream().map(QueryInfo::getQuery).toList());
+
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics != null) {
+            statistics.recordExecution(sql, elapsed);
+        }
+        if (elapsed >= slowThresholdNanos) {
+            slow.increment();
+            log.warn("Slow SQL ({} ms{}): {} parameters={}", TimeUnit.NANOSECONDS.toMillis(elapsed),
+                    execInfo.isBatch() ? ", batch of " + execInfo.getBatchSize() : "",
+                    sql, formatParameters(sql, queryInfoList));
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlStatistics statistics = SqlStatistics.current();
+            if (statistics != null) {
+                statistics.recordRow();
+            }
+        }
+    }
+
+    String formatParameters(String sql, List<QueryInfo> queryInfoList) {
+        if (redactedTables != null && redactedTables.matcher(sql).find()) {
+            return "[redacted]";
+        }
+        StringJoiner sets = new StringJoiner(", ", "[", "]");
+        int logged = 0;
+        int total = 0;
+        for (QueryInfo queryInfo : queryInfoList) {
+            for (List<ParameterSetOperation> parameterSet : queryInfo.getParametersList()) {
+                total++;
+                if (logged++ >= MAX_LOGGED_PARAMETER_SETS) {
+                    continue;
+                }
+                StringJoiner values = new StringJoiner(", ", "(", ")");
+                for (ParameterSetOperation operation : parameterSet) {
+                    Object[] args = operation.getArgs();
+                    values.add(args.length > 1 ? abbreviate(String.valueOf(args[1])) : "null");
+                }
+                sets.add(values.toString());
+            }
+        }
+        if (total > MAX_LOGGED_PARAMETER_SETS) {
+            sets.add("... " + (total - MAX_LOGGED_PARAMETER_SETS) + " more");
+        }
+        return sets.toString();
+    }
+
+    private static String abbreviate(String value) {
+        return value.length() > MAX_LOGGED_VALUE_LENGTH ? value.substring(0, MAX_LOGGED_VALUE_LENGTH) + "..." : value;
+    }
+}
@@ -0,0 +1,35 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Migration V11: sequence for Learning ids, replacing IDENTITY generation so
+ * Hibernate can batch inserts. INCREMENT BY must match the entity's
+ * allocationSize (pooled optimizer). Written in Java because the start value
+ * depends on the existing rows. Starting a full block above max(id) keeps the
+ * first pooled block clear of existing ids.
+ * <p>
+ * The id column's identity default is removed in V13: it would continue from
+ * max(id) + 1 and run into the sequence's blocks.
+ */
+public class V11__Create_Learning_Sequence extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long maxId;
+            try (ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM learning")) {
+                result.next();
+                maxId = result.getLong(1);
+            }
+            statement.execute("CREATE SEQUENCE learning_seq START WITH " + (maxId + ALLOCATION_SIZE + 1)
+                    + " INCREMENT BY " + ALLOCATION_SIZE);
+        }
+    }
+}
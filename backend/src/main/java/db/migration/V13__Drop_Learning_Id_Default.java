@@ -0,0 +1,31 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Statement;
+
+/**
+ * Migration V13: removes the id column's identity default, left over from
+ * before learning_seq (V11). It continued from max(id) + 1 and so collided
+ * with the ids Hibernate hands out from the sequence; inserts made outside the
+ * application must now take their id from learning_seq. Written in Java
+ * because the column is an identity column on H2 but may be a serial or an
+ * identity column on PostgreSQL, depending on what created the table.
+ */
+public class V13__Drop_Learning_Id_Default extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        String product = context.getConnection().getMetaData().getDatabaseProductName();
+        try (Statement statement = context.getConnection().createStatement()) {
+            if ("PostgreSQL".equals(product)) {
+                statement.execute("ALTER TABLE learning ALTER COLUMN id DROP IDENTITY IF EXISTS");
+                statement.execute("ALTER TABLE learning ALTER COLUMN id DROP DEFAULT");
+                statement.execute("DROP SEQUENCE IF EXISTS learning_id_seq");
+            } else {
+                statement.execute("ALTER TABLE learning ALTER COLUMN id DROP IDENTITY");
+            }
+        }
+    }
+}
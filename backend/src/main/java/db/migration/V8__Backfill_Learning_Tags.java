@@ -0,0 +1,83 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Migration V8: fills tag/learning_tag from the comma separated learning.tags
+ * column. Written in Java because splitting the column portably is not
+ * possible in plain SQL across H2 and PostgreSQL. Uses the same normalization
+ * as TagService (trim, lower case, blanks dropped), copied here so later code
+ * changes don't alter what this migration did.
+ */
+public class V8__Backfill_Learning_Tags extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Connection connection = context.getConnection();
+        Map<String, Long> tagIds = new HashMap<>();
+        try (Statement select = connection.createStatement();
+                PreparedStatement insertTag = connection.prepareStatement(
+                        "INSERT INTO tag (name) VALUES (?)", new String[] {"id"});
+                PreparedStatement insertLink = connection.prepareStatement(
+                        "INSERT INTO learning_tag (learning_id, tag_id) VALUES (?, ?)")) {
+            select.setFetchSize(BATCH_SIZE);
+            int pending = 0;
+            try (ResultSet rows = select.executeQuery(
+                    "SELECT id, tags FROM learning WHERE tags IS NOT NULL AND tags <> ''")) {
+                while (rows.next()) {
+                    long learningId = rows.getLong(1);
+                    for (String name : parse(rows.getString(2))) {
+                        Long tagId = tagIds.get(name);
+                        if (tagId == null) {
+                            tagId = insertTag(insertTag, name);
+                            tagIds.put(name, tagId);
+                        }
+                        insertLink.setLong(1, learningId);
+                        insertLink.setLong(2, tagId);
+                        insertLink.addBatch();
+                        if (++pending == BATCH_SIZE) {
+                            insertLink.executeBatch();
+                            pending = 0;
+                        }
+                    }
+                }
+            }
+            if (pending > 0) {
+                insertLink.executeBatch();
+            }
+        }
+    }
+
+    private static long insertTag(PreparedStatement insertTag, String name) throws Exception {
+        insertTag.setString(1, name);
+        insertTag.executeUpdate();
+        try (ResultSet keys = insertTag.getGeneratedKeys()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    private static Set<String> parse(String tags) {
+        Set<String> names = new LinkedHashSet<>();
+        for (String tag : tags.split(",")) {
+            String name = tag.trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty() && name.length() <= 255) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,18 @@
+-- Migration V12: state of streaming imports (POST /learnings/import)
+-- rows_read is committed together with each batch of learnings, so a failed or
+-- interrupted job resumes after the last committed row
+
+CREATE TABLE IF NOT EXISTS import_job (
+    id VARCHAR(36) PRIMARY KEY,
+    format VARCHAR(10) NOT NULL,
+    filename VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    bytes_total BIGINT NOT NULL DEFAULT 0,
+    bytes_read BIGINT NOT NULL DEFAULT 0,
+    rows_read BIGINT NOT NULL DEFAULT 0,
+    rows_imported BIGINT NOT NULL DEFAULT 0,
+    rows_failed BIGINT NOT NULL DEFAULT 0,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
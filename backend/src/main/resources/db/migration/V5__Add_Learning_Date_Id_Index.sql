@@ -0,0 +1,4 @@
+-- Migration V5: composite index backing keyset pagination on GET /learnings?after=...
+-- Matches the ORDER BY date DESC NULLS FIRST, id DESC used by LearningRepository
+
+CREATE INDEX IF NOT EXISTS idx_learning_date_id ON learning (date DESC, id DESC);
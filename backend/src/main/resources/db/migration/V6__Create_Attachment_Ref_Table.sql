@@ -0,0 +1,8 @@
+-- Migration V6: reference counts for content-addressed uploads (file.upload.storage=content-addressed)
+-- One row per stored <sha256><ext> file; ref_count = number of learnings listing it in attachments
+
+CREATE TABLE IF NOT EXISTS attachment_ref (
+    filename VARCHAR(100) PRIMARY KEY,
+    ref_count BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
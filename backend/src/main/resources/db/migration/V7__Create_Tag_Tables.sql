@@ -0,0 +1,17 @@
+-- Migration V7: normalized tags for exact tag filters on GET /learnings?tags=...
+-- learning.tags stays the source of truth; learning_tag is maintained by TagService
+-- and backfilled from existing rows by the Java migration V8
+
+CREATE TABLE IF NOT EXISTS tag (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS learning_tag (
+    learning_id BIGINT NOT NULL REFERENCES learning (id) ON DELETE CASCADE,
+    tag_id BIGINT NOT NULL REFERENCES tag (id),
+    PRIMARY KEY (learning_id, tag_id)
+);
+
+-- Tag filters look up learnings by tag: seek on tag_id, learning_id read from the index
+CREATE INDEX IF NOT EXISTS idx_learning_tag_tag ON learning_tag (tag_id, learning_id);
@@ -0,0 +1,3 @@
+-- Migration V9: backs the category facet (GROUP BY category) on GET /learnings/facets
+
+CREATE INDEX IF NOT EXISTS idx_learning_category ON learning (category);
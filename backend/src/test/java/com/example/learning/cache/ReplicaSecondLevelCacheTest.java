@@ -0,0 +1,168 @@
+package com.example.learning.cache;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.repository.LearningRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache-primary;DB_CLOSE_DELAY=-1",
+        "learning.datasource.replica.jdbc-url=jdbc:h2:mem:cache-replica;DB_CLOSE_DELAY=-1",
+        "learning.datasource.replica.username=sa",
+        // Every read-only transaction reads the replica, including the writer's own
+        "learning.datasource.replica.sticky-window=0s",
+        // The startup index rebuild would read the replica before the test gave it a schema
+        "learning.search.engine=like"
+})
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+class ReplicaSecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager secondLevelCacheManager;
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private DataSource replicaDataSource;
+
+    @BeforeEach
+    void setUp() {
+        learningRepository.deleteAll();
+        entityManagerFactory.getCache().evictAll();
+        replicate();
+    }
+
+    @Test
+    void testQueryResultsFromALaggingReplicaAreNotCached() {
+        // Given - committed on the primary, not yet on the replica
+        Learning learning = learningRepository.save(learning("Fresh"));
+
+        // When - read-only, so served by the replica
+        assertThat(learningRepository.findAll(PageRequest.of(0, 10))).isEmpty();
+
+        // Then - once the replica caught up, the list shows the row
+        assertThat(queryResults()).isZero();
+        replicate();
+        assertThat(learningRepository.findAll(PageRequest.of(0, 10)))
+                .extracting(Learning::getId).containsExactly(learning.getId());
+    }
+
+    @Test
+    void testEntitiesFromALaggingReplicaAreNotCached() {
+        // Given - the replica still has the old title
+        Learning learning = learningRepository.save(learning("Old"));
+        replicate();
+        learning.setTitle("New");
+        learningRepository.save(learning);
+        entityManagerFactory.getCache().evict(Learning.class, learning.getId());
+
+        // When
+        assertThat(learningRepository.findById(learning.getId())).get()
+                .extracting(Learning::getTitle).isEqualTo("Old");
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Learning.class, learning.getId())).isFalse();
+        replicate();
+        assertThat(learningRepository.findById(learning.getId())).get()
+                .extracting(Learning::getTitle).isEqualTo("New");
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testPagesFromALaggingReplicaAreNotCached() throws Exception {
+        // Given
+        learningRepository.save(learning("Fresh"));
+
+        // When & Then - the stale page gets no ETag and is not kept for this version
+        mockMvc.perform(get("/learnings"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.totalItems").value(0));
+        replicate();
+        mockMvc.perform(get("/learnings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(1));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser(roles = "ADMIN")
+    void testWritesReadTheRowFromThePrimary() throws Exception {
+        // Given - neither row has reached the replica yet, and the cache would hide where reads go
+        Learning updated = learningRepository.save(learning("Fresh"));
+        Learning deleted = learningRepository.save(learning("Short-lived"));
+        entityManagerFactory.getCache().evictAll();
+
+        // When & Then
+        mockMvc.perform(put("/learnings/" + updated.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Edited\",\"category\":\"Job\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Edited"));
+        mockMvc.perform(delete("/learnings/" + deleted.getId()))
+                .andExpect(status().isOk());
+        assertThat(learningRepository.count()).isZero(); // the lagging replica
+        replicate();
+        assertThat(learningRepository.findAll()).extracting(Learning::getTitle).containsExactly("Edited");
+    }
+
+    // Replication catching up: the replica becomes a copy of the primary
+    private void replicate() {
+        List<String> script = new JdbcTemplate(primaryDataSource).queryForList("SCRIPT", String.class);
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+    }
+
+    private static Learning learning(String title) {
+        Learning learning = new Learning();
+        learning.setTitle(title);
+        learning.setCategory("Job");
+        learning.setDate(LocalDate.of(2024, 1, 1));
+        return learning;
+    }
+
+    private long queryResults() {
+        javax.cache.Cache<Object, Object> cache = secondLevelCacheManager.getCache(
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+        long entries = 0;
+        for (javax.cache.Cache.Entry<Object, Object> ignored : cache) {
+            entries++;
+        }
+        return entries;
+    }
+}
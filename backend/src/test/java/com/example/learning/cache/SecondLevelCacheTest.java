@@ -0,0 +1,155 @@
+package com.example.learning.cache;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.entity.User;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningRepository;
+import com.example.learning.repository.UserRepository;
+import com.example.learning.service.LearningResponseCache;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.cache.CacheManager;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager secondLevelCacheManager;
+
+    @Autowired
+    private CacheInvalidationBus bus;
+
+    @Autowired
+    private SecondLevelCacheInvalidator invalidator;
+
+    @Autowired
+    private LearningResponseCache learningResponseCache;
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final List<CacheInvalidation> published = new CopyOnWriteArrayList<>();
+    private Learning learning;
+
+    @BeforeEach
+    void setUp() {
+        learningRepository.deleteAll();
+        learning = new Learning();
+        learning.setTitle("Cached");
+        learning.setCategory("Job");
+        learning.setDate(LocalDate.of(2024, 1, 1));
+        learning = learningRepository.save(learning);
+        bus.subscribe(published::add);
+    }
+
+    @Test
+    void testSavedLearningIsCached() {
+        // When & Then - written through on commit, so findById needs no query
+        assertThat(entityManagerFactory.getCache().contains(Learning.class, learning.getId())).isTrue();
+        assertThat(learningRepository.findById(learning.getId())).get()
+                .extracting(Learning::getTitle).isEqualTo("Cached");
+    }
+
+    @Test
+    void testListQueriesUseTheQueryCache() {
+        // When
+        learningRepository.findAll(PageRequest.of(0, 10));
+
+        // Then
+        assertThat(queryResults()).isPositive();
+    }
+
+    @Test
+    void testChangesFromOtherInstancesEvictLocalCaches() {
+        // Given
+        learningRepository.findAll(PageRequest.of(0, 10));
+        long version = learningResponseCache.getVersion();
+
+        // When
+        bus.publish(CacheInvalidation.learning("other-instance", learning.getId()));
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Learning.class, learning.getId())).isFalse();
+        assertThat(queryResults()).isZero();
+        assertThat(learningResponseCache.getVersion()).isGreaterThan(version);
+    }
+
+    @Test
+    void testBatchChangesFromOtherInstancesEvictAllLearnings() {
+        // When
+        bus.publish(CacheInvalidation.allLearnings("other-instance"));
+
+        // Then
+        assertThat(entityManagerFactory.getCache().contains(Learning.class, learning.getId())).isFalse();
+    }
+
+    @Test
+    void testOwnChangesArePublishedButNotEvicted() {
+        // When
+        eventPublisher.publishEvent(LearningChangedEvent.updated(learning, learning));
+
+        // Then - Hibernate already keeps this instance's cache current
+        assertThat(published).singleElement().satisfies(invalidation -> {
+            assertThat(invalidation.getOrigin()).isEqualTo(invalidator.getInstanceId());
+            assertThat(invalidation.getType()).isEqualTo(CacheInvalidation.Type.LEARNING);
+            assertThat(invalidation.getId()).isEqualTo(learning.getId());
+        });
+        assertThat(entityManagerFactory.getCache().contains(Learning.class, learning.getId())).isTrue();
+    }
+
+    @Test
+    void testUserChangesArePublishedAfterCommit() {
+        // Given
+        User user = userRepository.findByUsername("cached").orElseGet(() -> {
+            User created = new User();
+            created.setUsername("cached");
+            created.setEmail("cached@example.com");
+            created.setPassword("hash");
+            return userRepository.save(created);
+        });
+
+        // When
+        user.setEnabled(false);
+        userRepository.save(user);
+
+        // Then
+        assertThat(published).singleElement().satisfies(invalidation -> {
+            assertThat(invalidation.getType()).isEqualTo(CacheInvalidation.Type.USER);
+            assertThat(invalidation.getId()).isEqualTo(user.getId());
+            assertThat(invalidation.getUsername()).isEqualTo("cached");
+        });
+    }
+
+    private long queryResults() {
+        javax.cache.Cache<Object, Object> cache = secondLevelCacheManager.getCache(
+                RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME);
+        long entries = 0;
+        for (javax.cache.Cache.Entry<Object, Object> ignored : cache) {
+            entries++;
+        }
+        return entries;
+    }
+}
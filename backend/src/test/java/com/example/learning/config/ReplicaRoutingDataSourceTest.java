@@ -0,0 +1,117 @@
+package com.example.learning.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        // Two in-memory databases stand in for the primary and its replica
+        use(database("primary"), database("replica"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransactionsUseTheReplica() {
+        // When & Then
+        assertThat(whereAmI(readOnly)).isEqualTo("replica");
+        assertThat(whereAmI(readWrite)).isEqualTo("primary");
+        assertThat(whereAmI()).as("outside a transaction").isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.routing").tag("target", "replica").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void testReadsFollowTheirOwnWritesToThePrimary() {
+        // Given
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> jdbcTemplate.update("insert into marker values ('written')"));
+
+        // When & Then - alice reads the primary for a while, others keep using the replica
+        assertThat(whereAmI(readOnly)).isEqualTo("primary");
+        authenticate("bob");
+        assertThat(whereAmI(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void testRolledBackWritesAreNotSticky() {
+        // Given
+        authenticate("alice");
+        readWrite.executeWithoutResult(status -> {
+            jdbcTemplate.update("insert into marker values ('discarded')");
+            status.setRollbackOnly();
+        });
+
+        // When & Then
+        assertThat(whereAmI(readOnly)).isEqualTo("replica");
+    }
+
+    @Test
+    void testFallsBackToThePrimaryWhenTheReplicaIsDown() {
+        // Given
+        DriverManagerDataSource down = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/unreachable");
+        use(database("primary"), down);
+
+        // When & Then - the replica is not retried within the retry interval
+        assertThat(whereAmI(readOnly)).isEqualTo("primary");
+        assertThat(whereAmI(readOnly)).isEqualTo("primary");
+        assertThat(meterRegistry.get("datasource.replica.fallback").counter().count()).isEqualTo(1);
+    }
+
+    private void use(DataSource primary, DataSource replica) {
+        DataSource dataSource = new LazyConnectionDataSourceProxy(new ReplicaRoutingDataSource(
+                primary, replica, Duration.ofMinutes(1), Duration.ofMinutes(1), meterRegistry));
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    private String whereAmI(TransactionTemplate transaction) {
+        return transaction.execute(status -> whereAmI());
+    }
+
+    private String whereAmI() {
+        return jdbcTemplate.queryForObject("select name from marker order by name limit 1", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop table if exists marker");
+        jdbcTemplate.execute("create table marker (name varchar(20))");
+        jdbcTemplate.update("insert into marker values (?)", name);
+        return dataSource;
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(username, null, List.of()));
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.learning.controller;
+
+import com.example.learning.config.SecurityConfig;
+import com.example.learning.service.AttachmentStorageService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.head;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AttachmentController.class)
+// Real security rules: attachments are public
+@Import({ AttachmentStorageService.class, SecurityConfig.class, io.micrometer.core.instrument.simple.SimpleMeterRegistry.class })
+class AttachmentControllerTest {
+
+    private static final String FILE_NAME = "3f2b7c1e-9a4d-4c6b-8e1f-0a2b3c4d5e6f.txt";
+    private static final String CONTENT = "0123456789abcdefghij";
+
+    private static Path uploadDir;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AttachmentStorageService attachmentStorageService;
+
+    @MockBean
+    private com.example.learning.security.JwtUtil jwtUtil;
+
+    @MockBean
+    private com.example.learning.security.CustomUserDetailsService customUserDetailsService;
+
+    @MockBean
+    private com.example.learning.repository.UserRepository userRepository;
+
+    @BeforeAll
+    static void createUpload() throws IOException {
+        uploadDir = Files.createTempDirectory("attachment-test");
+        Files.writeString(uploadDir.resolve(FILE_NAME), CONTENT, StandardCharsets.UTF_8);
+    }
+
+    @AfterAll
+    static void deleteUploads() throws IOException {
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @DynamicPropertySource
+    static void uploadPath(DynamicPropertyRegistry registry) {
+        registry.add("file.upload.path", () -> uploadDir.toString());
+    }
+
+    @Test
+    void testServeWithCacheHeaders() throws Exception {
+        // When & Then - no authentication needed, same as before
+        mockMvc.perform(get("/uploads/" + FILE_NAME))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + FILE_NAME + "\""))
+                .andExpect(header().string("Cache-Control", "public, max-age=31536000, immutable"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().longValue("Content-Length", CONTENT.length()))
+                .andExpect(content().contentTypeCompatibleWith("text/plain"))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void testIfNoneMatchReturnsNotModified() throws Exception {
+        mockMvc.perform(get("/uploads/" + FILE_NAME).header("If-None-Match", "\"" + FILE_NAME + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testRangeRequestReturnsPartialContent() throws Exception {
+        mockMvc.perform(get("/uploads/" + FILE_NAME).header("Range", "bytes=5-9"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes 5-9/" + CONTENT.length()))
+                .andExpect(header().longValue("Content-Length", 5))
+                .andExpect(content().string("56789"));
+    }
+
+    @Test
+    void testSuffixRange() throws Exception {
+        mockMvc.perform(get("/uploads/" + FILE_NAME).header("Range", "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().string("ghij"));
+    }
+
+    @Test
+    void testStaleIfRangeReturnsWholeFile() throws Exception {
+        mockMvc.perform(get("/uploads/" + FILE_NAME).header("Range", "bytes=5-9").header("If-Range", "\"other\""))
+                .andExpect(status().isOk())
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void testUnsatisfiableRange() throws Exception {
+        mockMvc.perform(get("/uploads/" + FILE_NAME).header("Range", "bytes=100-200"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */" + CONTENT.length()));
+    }
+
+    @Test
+    void testHeadHasHeadersWithoutBody() throws Exception {
+        mockMvc.perform(head("/uploads/" + FILE_NAME))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("Content-Length", CONTENT.length()))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testPendingPreviewServesOriginalUncached() throws Exception {
+        // Given - FILE_NAME has no _w160 variant on disk
+        String preview = FILE_NAME.replace(".txt", "_w160.txt");
+
+        // When & Then
+        mockMvc.perform(get("/uploads/" + preview))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache"))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void testUnknownOrHiddenFilesAreNotFound() throws Exception {
+        mockMvc.perform(get("/uploads/missing.png"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/uploads/.tmp"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testNamesKeptFromTheOriginalUploadAreServed() throws Exception {
+        // Given - before content addressing, the extension was copied from the client's file name
+        String uuid = "5a1c2e3f-4b6d-4e8f-9a0b-1c2d3e4f5a6b";
+        for (String name : new String[] { uuid + ".tar-gz", uuid + ".", uuid + ".my notes", uuid + ".old_v2" }) {
+            Files.writeString(uploadDir.resolve(name), CONTENT, StandardCharsets.UTF_8);
+
+            // When & Then
+            mockMvc.perform(get(URI.create("/uploads/" + UriUtils.encodePathSegment(name, StandardCharsets.UTF_8))))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(CONTENT));
+        }
+    }
+
+    @Test
+    void testPathsOutsideTheUploadDirectoryAreNotFound() throws Exception {
+        // Given - the firewall rejects such URLs already, so call the controller directly
+        Files.writeString(uploadDir.resolveSibling("outside-uploads.txt"), "secret", StandardCharsets.UTF_8);
+        AttachmentController controller = new AttachmentController(attachmentStorageService);
+
+        try {
+            for (String name : new String[] { "../outside-uploads.txt", "..", "sub/../../outside-uploads.txt" }) {
+                // When
+                MockHttpServletResponse response = new MockHttpServletResponse();
+                controller.serve(name, new MockHttpServletRequest("GET", "/uploads/x"), response);
+
+                // Then
+                assertThat(response.getStatus()).isEqualTo(404);
+            }
+        } finally {
+            Files.deleteIfExists(uploadDir.resolveSibling("outside-uploads.txt"));
+        }
+    }
+}
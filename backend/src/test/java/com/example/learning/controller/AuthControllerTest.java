@@ -0,0 +1,121 @@
+package com.example.learning.controller;
+
+import com.example.learning.config.SecurityConfig;
+import com.example.learning.entity.User;
+import com.example.learning.security.PasswordHashingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AuthController.class)
+@Import(SecurityConfig.class)
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+
+    @MockBean
+    private AuthenticationManager authenticationManager;
+
+    @MockBean
+    private com.example.learning.security.JwtUtil jwtUtil;
+
+    @MockBean
+    private com.example.learning.security.CustomUserDetailsService customUserDetailsService;
+
+    @MockBean
+    private com.example.learning.repository.UserRepository userRepository;
+
+    @Test
+    void testRegisterWhenHashingQueueFull() throws Exception {
+        // Given
+        when(passwordHashingService.encode(any())).thenThrow(new RejectedExecutionException("queue full"));
+        when(passwordHashingService.getRetryAfterSeconds()).thenReturn(3);
+
+        // When
+        MvcResult started = mockMvc.perform(post("/auth/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"alice\",\"email\":\"alice@example.com\",\"password\":\"secret1\"}"))
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "3"))
+                .andExpect(jsonPath("$.error").exists());
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void testLoginWhenHashingQueueFull() throws Exception {
+        // Given
+        when(passwordHashingService.verify(any())).thenThrow(new RejectedExecutionException("queue full"));
+        when(passwordHashingService.getRetryAfterSeconds()).thenReturn(1);
+
+        // When
+        MvcResult started = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"alice\",\"password\":\"secret1\"}"))
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+    }
+
+    @Test
+    void testLoginLooksUpTheUserOffTheHashingPool() throws Exception {
+        // Given
+        org.springframework.security.core.userdetails.User principal =
+                new org.springframework.security.core.userdetails.User("alice", "hash", List.of());
+        when(passwordHashingService.verify(any())).thenReturn(CompletableFuture.completedFuture(
+                new UsernamePasswordAuthenticationToken(principal, null, List.of())));
+        User user = new User();
+        user.setUsername("alice");
+        user.setEmail("alice@example.com");
+        user.setRoles("ROLE_USER");
+        AtomicReference<String> lookupThread = new AtomicReference<>();
+        when(userRepository.findByUsername("alice")).thenAnswer(invocation -> {
+            lookupThread.set(Thread.currentThread().getName());
+            return Optional.of(user);
+        });
+
+        // When
+        MvcResult started = mockMvc.perform(post("/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"alice\",\"password\":\"secret1\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("alice"));
+        assertThat(lookupThread.get()).startsWith("task-");
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.learning.controller;
+
+import com.example.learning.service.ChunkedUploadService;
+import com.example.learning.service.ChunkedUploadService.OffsetMismatchException;
+import com.example.learning.service.ChunkedUploadService.UploadSession;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ChunkedUploadController.class)
+class ChunkedUploadControllerTest {
+
+    private static final String UPLOAD_ID = "0b1c2d3e-4f50-6172-8394-a5b6c7d8e9f0";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ChunkedUploadService chunkedUploadService;
+
+    @MockBean
+    private com.example.learning.service.ThumbnailService thumbnailService;
+
+    @MockBean
+    private com.example.learning.security.JwtUtil jwtUtil;
+
+    @MockBean
+    private com.example.learning.security.CustomUserDetailsService customUserDetailsService;
+
+    @MockBean
+    private com.example.learning.repository.UserRepository userRepository;
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testInitiateUpload() throws Exception {
+        // Given
+        when(chunkedUploadService.initiate("video.mp4", 1000L))
+                .thenReturn(new UploadSession(UPLOAD_ID, "video.mp4", 1000L, 0));
+
+        // When & Then
+        mockMvc.perform(post("/upload/chunks")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"filename\":\"video.mp4\",\"size\":1000}"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.uploadId").value(UPLOAD_ID))
+                .andExpect(jsonPath("$.offset").value(0));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testUploadChunk() throws Exception {
+        // Given
+        when(chunkedUploadService.writeChunk(eq(UPLOAD_ID), eq(0L), any(InputStream.class), isNull()))
+                .thenReturn(4L);
+
+        // When & Then
+        mockMvc.perform(put("/upload/chunks/" + UPLOAD_ID).param("offset", "0")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(new byte[] { 1, 2, 3, 4 }))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.offset").value(4));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testUploadChunkAtWrongOffsetReturnsConflict() throws Exception {
+        // Given
+        when(chunkedUploadService.writeChunk(eq(UPLOAD_ID), eq(0L), any(InputStream.class), isNull()))
+                .thenThrow(new OffsetMismatchException(512));
+
+        // When & Then
+        mockMvc.perform(put("/upload/chunks/" + UPLOAD_ID).param("offset", "0")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(new byte[] { 1 }))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.offset").value(512));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testStatusOfUnknownUploadReturnsNotFound() throws Exception {
+        // Given
+        when(chunkedUploadService.find(UPLOAD_ID)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/upload/chunks/" + UPLOAD_ID))
+                .andExpect(status().isNotFound());
+    }
+}
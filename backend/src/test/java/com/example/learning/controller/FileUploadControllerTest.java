@@ -1,10 +1,12 @@
 package com.example.learning.controller;
 
+import com.example.learning.service.AttachmentStorageService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
@@ -14,19 +16,25 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Comparator;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(FileUploadController.class)
+@Import({ AttachmentStorageService.class, io.micrometer.core.instrument.simple.SimpleMeterRegistry.class })
 class FileUploadControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private com.example.learning.service.ThumbnailService thumbnailService;
+
     @MockBean
     private com.example.learning.security.JwtUtil jwtUtil;
 
@@ -220,6 +228,60 @@ class FileUploadControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testUploadMultipleFiles_ImageListsPreviews() throws Exception {
+        // Given
+        when(thumbnailService.submit(org.mockito.ArgumentMatchers.endsWith(".png")))
+                .thenAnswer(invocation -> Map.of("w160",
+                        invocation.getArgument(0, String.class).replace(".png", "_w160.png")));
+        MockMultipartFile image = new MockMultipartFile(
+                "files",
+                "diagram.png",
+                "image/png",
+                "png bytes".getBytes());
+
+        // When & Then
+        mockMvc.perform(multipart("/upload/multiple")
+                .file(image)
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].url").value(containsString(".png")))
+                .andExpect(jsonPath("$[0].previews.w160").value(containsString("_w160.png")));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testUploadFile_JsonListsPreviews() throws Exception {
+        // Given
+        when(thumbnailService.submit(org.mockito.ArgumentMatchers.endsWith(".png")))
+                .thenAnswer(invocation -> Map.of("w160",
+                        invocation.getArgument(0, String.class).replace(".png", "_w160.png")));
+        MockMultipartFile image = new MockMultipartFile(
+                "file",
+                "diagram.png",
+                "image/png",
+                "png bytes".getBytes());
+
+        // When & Then
+        mockMvc.perform(multipart("/upload")
+                .file(image)
+                .accept(MediaType.APPLICATION_JSON)
+                .with(csrf()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.url").value(containsString(".png")))
+                .andExpect(jsonPath("$.filename").value("diagram.png"))
+                .andExpect(jsonPath("$.previews.w160").value(containsString("_w160.png")));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testFindByDigest_NotFoundInUuidMode() throws Exception {
+        // When & Then - only content-addressed storage can answer digest lookups
+        mockMvc.perform(get("/upload/digest/" + "a".repeat(64)).param("filename", "shot.png"))
+                .andExpect(status().isNotFound());
+    }
+
     @AfterEach
     void tearDown() throws IOException {
         // Clean up test-generated files after each test
@@ -1,5 +1,6 @@
 package com.example.learning.controller;
 
+import com.example.learning.dto.LearningCursor;
 import com.example.learning.entity.Learning;
 import com.example.learning.repository.LearningRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -9,10 +10,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
@@ -29,6 +33,9 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(LearningController.class)
+@Import({com.example.learning.service.LearningValidator.class,
+        com.example.learning.service.LearningResponseCache.class,
+        io.micrometer.core.instrument.simple.SimpleMeterRegistry.class})
 class LearningControllerTest {
 
     @Autowired
@@ -37,6 +44,24 @@ class LearningControllerTest {
     @MockBean
     private LearningRepository learningRepository;
 
+    @MockBean
+    private com.example.learning.search.LearningSearchService learningSearchService;
+
+    @MockBean
+    private com.example.learning.repository.LearningCountEstimator learningCountEstimator;
+
+    @MockBean
+    private com.example.learning.service.LearningExportService learningExportService;
+
+    @MockBean
+    private com.example.learning.service.FacetService facetService;
+
+    @MockBean
+    private com.example.learning.service.CustomPropertyQueryService customPropertyQueryService;
+
+    @MockBean
+    private com.example.learning.service.LearningBatchService learningBatchService;
+
     @MockBean
     private com.example.learning.security.JwtUtil jwtUtil;
 
@@ -49,8 +74,13 @@ class LearningControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private com.example.learning.service.LearningResponseCache learningResponseCache;
+
     @BeforeEach
     void setUp() {
+        // Cached pages must not leak between tests that stub the same request differently
+        learningResponseCache.invalidate();
         // Register JavaTimeModule for LocalDate support
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.configure(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
@@ -84,6 +114,43 @@ class LearningControllerTest {
         verify(learningRepository, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_CachedUntilDataChanges() throws Exception {
+        // Given
+        Page<Learning> learningPage = new PageImpl<>(List.of(createTestLearning(1L, "Learning 1")),
+                PageRequest.of(0, 10), 1);
+        when(learningRepository.findAll(any(Pageable.class))).thenReturn(learningPage);
+
+        // When
+        String etag = mockMvc.perform(get("/learnings?page=0&size=10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // Then: same page again is served from the cache, a revalidation gets 304
+        org.junit.jupiter.api.Assertions.assertTrue(etag.startsWith("W/\""));
+        mockMvc.perform(get("/learnings?size=10&page=0"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(jsonPath("$.learnings[0].title").value("Learning 1"));
+        mockMvc.perform(get("/learnings?page=0&size=10").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(learningRepository, times(1)).findAll(any(Pageable.class));
+
+        // When a learning changes, the version and the ETag move on
+        when(learningRepository.save(any(Learning.class))).thenReturn(createTestLearning(2L, "New"));
+        mockMvc.perform(post("/learnings").with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"title\":\"New\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/learnings?page=0&size=10").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", org.hamcrest.Matchers.not(etag)));
+        verify(learningRepository, times(2)).findAll(any(Pageable.class));
+    }
+
     @Test
     @org.springframework.security.test.context.support.WithMockUser
     void testCreateLearning() throws Exception {
@@ -105,6 +172,43 @@ class LearningControllerTest {
         verify(learningRepository, times(1)).save(any(Learning.class));
     }
 
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testBatchLearnings() throws Exception {
+        // Given
+        com.example.learning.service.LearningBatchService.Result result =
+                mock(com.example.learning.service.LearningBatchService.Result.class);
+        when(result.isApplied()).thenReturn(true);
+        when(result.getCreated()).thenReturn(List.of(51L, 52L));
+        when(learningBatchService.getMaxItems()).thenReturn(5000);
+        when(learningBatchService.apply(any(), eq(true))).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/learnings/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"create\": [{\"title\": \"One\"}, {\"title\": \"Two\"}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.applied").value(true))
+                .andExpect(jsonPath("$.created.length()").value(2));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testBatchLearnings_DeleteRequiresAdmin() throws Exception {
+        // Given
+        when(learningBatchService.getMaxItems()).thenReturn(5000);
+
+        // When & Then
+        mockMvc.perform(post("/learnings/batch")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"delete\": [1]}"))
+                .andExpect(status().isForbidden());
+
+        verify(learningBatchService, never()).apply(any(), anyBoolean());
+    }
+
     @Test
     @org.springframework.security.test.context.support.WithMockUser
     void testUpdateLearning_Success() throws Exception {
@@ -231,7 +335,7 @@ class LearningControllerTest {
         List<Learning> searchResults = Arrays.asList(learning1, learning2);
         Page<Learning> searchPage = new PageImpl<>(searchResults, PageRequest.of(0, 10), 2);
 
-        when(learningRepository.findBySearchTerm(eq("java"), any(Pageable.class))).thenReturn(searchPage);
+        when(learningSearchService.search(eq("java"), any(Pageable.class))).thenReturn(searchPage);
 
         // When & Then
         mockMvc.perform(get("/learnings?page=0&size=10&search=java"))
@@ -244,7 +348,272 @@ class LearningControllerTest {
                 .andExpect(jsonPath("$.totalItems").value(2))
                 .andExpect(jsonPath("$.searchTerm").value("java"));
 
-        verify(learningRepository, times(1)).findBySearchTerm(eq("java"), any(Pageable.class));
+        verify(learningSearchService, times(1)).search(eq("java"), any(Pageable.class));
+        verify(learningRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_WithTags() throws Exception {
+        // Given
+        Learning learning = createTestLearning(1L, "Tagged");
+        when(learningRepository.findByAllTags(any(), eq(2L), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(learning), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get("/learnings?tags=Java,spring"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.learnings.length()").value(1))
+                .andExpect(jsonPath("$.totalItems").value(1))
+                .andExpect(jsonPath("$.tags[0]").value("java"))
+                .andExpect(jsonPath("$.tags[1]").value("spring"));
+
+        verify(learningRepository, never()).findByAnyTag(any(), any(Pageable.class));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_WithAnyTag() throws Exception {
+        // Given
+        when(learningRepository.findByAnyTag(any(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 10), 0));
+
+        // When & Then
+        mockMvc.perform(get("/learnings?tags=java&tags=docker&tagMatch=any"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalItems").value(0));
+
+        verify(learningRepository).findByAnyTag(eq(java.util.Set.of("java", "docker")), any(Pageable.class));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_WithCustomProperty() throws Exception {
+        // Given
+        Learning learning = createTestLearning(1L, "Hard one");
+        when(customPropertyQueryService.findByProperties(eq(java.util.Map.of("difficulty", "hard")),
+                any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(learning), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get("/learnings?prop.difficulty=hard"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.learnings[0].id").value(1))
+                .andExpect(jsonPath("$.properties.difficulty").value("hard"));
+
+        verify(learningRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testCreateLearning_InvalidCustomProperties() throws Exception {
+        // Given
+        Learning learning = createTestLearning(null, "Broken");
+        learning.setCustomProperties("{difficulty: hard");
+
+        // When & Then
+        mockMvc.perform(post("/learnings")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(learning)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("customProperties must be valid JSON"));
+
+        verify(learningRepository, never()).save(any(Learning.class));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_InvalidTagFilter() throws Exception {
+        mockMvc.perform(get("/learnings?tags=java&tagMatch=some"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/learnings?tags=java&search=streams"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_SummaryView() throws Exception {
+        // Given
+        com.example.learning.dto.LearningSummary summary = new com.example.learning.dto.LearningSummary(
+                1L, "Learning 1", "Job", LocalDate.of(2023, 10, 15), "java", "<p>Short</p>");
+        when(learningRepository.findSummaries(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(summary), PageRequest.of(0, 10), 1));
+
+        // When & Then
+        mockMvc.perform(get("/learnings?view=summary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.learnings[0].title").value("Learning 1"))
+                .andExpect(jsonPath("$.learnings[0].descriptionSnippet").value("Short"))
+                .andExpect(jsonPath("$.learnings[0].description").doesNotExist())
+                .andExpect(jsonPath("$.learnings[0].attachments").doesNotExist())
+                .andExpect(jsonPath("$.totalItems").value(1));
+
+        verify(learningRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_SummaryViewWithoutDescription() throws Exception {
+        // Given
+        com.example.learning.dto.LearningSummary summary = new com.example.learning.dto.LearningSummary(
+                1L, "Learning 1", "Job", LocalDate.of(2023, 10, 15), null, null);
+        when(learningRepository.findSummaries(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(summary), PageRequest.of(0, 10), 1));
+
+        // When & Then - the snippet key still marks the item as a summary
+        mockMvc.perform(get("/learnings?view=summary"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(org.hamcrest.Matchers.containsString("\"descriptionSnippet\":null")))
+                .andExpect(jsonPath("$.learnings[0].tags").doesNotExist());
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetLearningById() throws Exception {
+        // Given
+        when(learningRepository.findById(1L)).thenReturn(Optional.of(createTestLearning(1L, "Learning 1")));
+        when(learningRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/learnings/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.description").value("Test Description"));
+        mockMvc.perform(get("/learnings/2"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_WithoutCount() throws Exception {
+        // Given
+        List<Learning> learningList = Arrays.asList(createTestLearning(1L, "Learning 1"));
+        when(learningRepository.findSliceBy(any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(learningList, PageRequest.of(0, 10), true));
+
+        // When & Then
+        mockMvc.perform(get("/learnings?page=0&size=10&count=none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.learnings.length()").value(1))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalItems").doesNotExist());
+
+        verify(learningRepository, never()).findAll(any(Pageable.class));
+        verify(learningRepository, never()).count();
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_KeysetFirstPage() throws Exception {
+        // Given - one row more than the page size signals a next page
+        Learning learning1 = createTestLearning(3L, "Learning 3");
+        Learning learning2 = createTestLearning(2L, "Learning 2");
+        Learning learning3 = createTestLearning(1L, "Learning 1");
+        when(learningRepository.findKeysetFirstPage(Limit.of(3)))
+                .thenReturn(Arrays.asList(learning1, learning2, learning3));
+
+        // When & Then
+        mockMvc.perform(get("/learnings?after=&size=2&count=none"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.learnings.length()").value(2))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.nextCursor").value(new LearningCursor(LocalDate.of(2023, 10, 15), 2L).encode()))
+                .andExpect(jsonPath("$.totalItems").doesNotExist());
+
+        verify(learningRepository, never()).count();
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_KeysetNextPage() throws Exception {
+        // Given
+        String cursor = new LearningCursor(LocalDate.of(2023, 10, 15), 2L).encode();
+        when(learningRepository.findKeysetPageAfter(LocalDate.of(2023, 10, 15), 2L, Limit.of(3)))
+                .thenReturn(Arrays.asList(createTestLearning(1L, "Learning 1")));
+        when(learningCountEstimator.estimateCount()).thenReturn(3L);
+
+        // When & Then
+        mockMvc.perform(get("/learnings?size=2&count=estimated&after=" + cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.learnings.length()").value(1))
+                .andExpect(jsonPath("$.hasNext").value(false))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist())
+                .andExpect(jsonPath("$.totalItems").value(3))
+                .andExpect(jsonPath("$.totalItemsEstimated").value(true));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_InvalidCursor() throws Exception {
+        mockMvc.perform(get("/learnings?after=not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetFacets() throws Exception {
+        // Given
+        java.util.Map<String, Object> facets = new java.util.HashMap<>();
+        facets.put("categories", java.util.Map.of("Job", 3L));
+        facets.put("tags", java.util.Map.of("java", 2L));
+        facets.put("months", java.util.Map.of("2024-05", 3L));
+        when(facetService.getFacets("java", 10)).thenReturn(facets);
+
+        // When & Then
+        mockMvc.perform(get("/learnings/facets?search=java&tagLimit=10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.categories.Job").value(3))
+                .andExpect(jsonPath("$.tags.java").value(2))
+                .andExpect(jsonPath("$.months['2024-05']").value(3))
+                .andExpect(jsonPath("$.searchTerm").value("java"));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearningsWithoutPagination_StreamsJsonArray() throws Exception {
+        mockMvc.perform(get("/learnings/all"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        verify(learningExportService, times(1))
+                .export(any(), eq(com.example.learning.service.LearningExportService.Format.JSON));
+        verify(learningRepository, never()).findAll();
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testExportLearnings_NdjsonGzip() throws Exception {
+        mockMvc.perform(get("/learnings/export?format=ndjson&gzip=true"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andExpect(header().string("Content-Encoding", "gzip"));
+
+        verify(learningExportService, times(1))
+                .export(any(), eq(com.example.learning.service.LearningExportService.Format.NDJSON));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetAllLearnings_CountModeWithFilterOrSearch() throws Exception {
+        mockMvc.perform(get("/learnings?tags=java&count=none"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value(
+                        "count=none is not supported together with tag or property filters or search"));
+        mockMvc.perform(get("/learnings?prop.difficulty=hard&count=estimated"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/learnings?search=streams&count=none"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(learningSearchService, customPropertyQueryService);
+        verify(learningRepository, never()).findByAnyTag(any(), any());
+        verify(learningRepository, never()).findByAllTags(any(), anyLong(), any());
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testExportLearnings_UnknownFormat() throws Exception {
+        mockMvc.perform(get("/learnings/export?format=xml"))
+                .andExpect(status().isBadRequest());
     }
 
     private Learning createTestLearning(Long id, String title) {
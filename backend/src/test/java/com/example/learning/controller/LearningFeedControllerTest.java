@@ -0,0 +1,135 @@
+package com.example.learning.controller;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.service.LearningChangeFeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LearningFeedController.class)
+@Import({LearningChangeFeed.class, io.micrometer.core.instrument.simple.SimpleMeterRegistry.class})
+class LearningFeedControllerTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("id:(\\S+)");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LearningChangeFeed learningChangeFeed;
+
+    @MockBean
+    private com.example.learning.security.JwtUtil jwtUtil;
+
+    @MockBean
+    private com.example.learning.security.CustomUserDetailsService customUserDetailsService;
+
+    @MockBean
+    private com.example.learning.repository.UserRepository userRepository;
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testChangesArePushedAndReplayedAfterLastEventId() throws Exception {
+        // Given
+        MockHttpServletResponse live = subscribe(null);
+
+        // When
+        learningChangeFeed.onLearningChanged(LearningChangedEvent.created(learning(1L, "First")));
+        learningChangeFeed.onLearningChanged(LearningChangedEvent.created(learning(2L, "Second")));
+        learningChangeFeed.onLearningChanged(LearningChangedEvent.deleted(learning(1L, "First")));
+
+        // Then
+        String stream = awaitContent(live, "event:deleted");
+        assertThat(live.getContentType()).startsWith("text/event-stream");
+        assertThat(stream).contains("event:created", "\"title\":\"First\"", "\"title\":\"Second\"");
+        Matcher ids = EVENT_ID.matcher(stream);
+        assertThat(ids.find()).isTrue();
+
+        // When: a client that saw only the first event reconnects
+        MockHttpServletResponse resumed = subscribe(ids.group(1));
+
+        // Then: it gets the two events after it, not the first one again
+        String replay = awaitContent(resumed, "event:deleted");
+        assertThat(replay).doesNotContain("\"title\":\"First\"").contains("\"title\":\"Second\"");
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testUnknownLastEventIdAsksForReset() throws Exception {
+        // When
+        MockHttpServletResponse response = subscribe("from-another-run-42");
+
+        // Then
+        assertThat(awaitContent(response, "event:reset")).contains("event:reset");
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testLargeBatchIsSentAsOneReset() throws Exception {
+        // Given
+        MockHttpServletResponse live = subscribe(null);
+        int subscribers = learningChangeFeed.getSubscriberCount();
+        List<LearningChangedEvent> changes = new ArrayList<>();
+        for (long id = 1; id <= 500; id++) {
+            changes.add(LearningChangedEvent.created(learning(id, "Imported " + id)));
+        }
+
+        // When - more changes than a subscriber buffer holds
+        learningChangeFeed.onLearningBatchChanged(new LearningBatchChangedEvent(changes));
+
+        // Then - the subscriber stays connected and refetches once
+        String stream = awaitContent(live, "event:reset");
+        assertThat(stream).contains("event:reset").doesNotContain("event:created");
+        assertThat(learningChangeFeed.getSubscriberCount()).isEqualTo(subscribers);
+    }
+
+    @Test
+    void testFeedRequiresAuthentication() throws Exception {
+        mockMvc.perform(get("/learnings/changes"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        var request = get("/learnings/changes").accept("text/event-stream");
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn().getResponse();
+    }
+
+    // Events are written by the sender threads
+    private static String awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.currentTimeMillis() + 5000;
+        String content = response.getContentAsString();
+        while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            content = response.getContentAsString();
+        }
+        return content;
+    }
+
+    private static Learning learning(Long id, String title) {
+        Learning learning = new Learning();
+        learning.setId(id);
+        learning.setTitle(title);
+        learning.setCategory("Job");
+        return learning;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.learning.controller;
+
+import com.example.learning.entity.ImportJob;
+import com.example.learning.service.LearningImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(LearningImportController.class)
+class LearningImportControllerTest {
+
+    private static final String JOB_ID = "0b1c2d3e-4f50-6172-8394-a5b6c7d8e9f0";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private LearningImportService learningImportService;
+
+    @MockBean
+    private com.example.learning.security.JwtUtil jwtUtil;
+
+    @MockBean
+    private com.example.learning.security.CustomUserDetailsService customUserDetailsService;
+
+    @MockBean
+    private com.example.learning.repository.UserRepository userRepository;
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testStartImportUsesContentType() throws Exception {
+        // Given
+        when(learningImportService.start(eq("csv"), eq("learnings.csv"), any(InputStream.class)))
+                .thenReturn(new ImportJob(JOB_ID, "csv", "learnings.csv"));
+
+        // When & Then
+        mockMvc.perform(post("/learnings/import").param("filename", "learnings.csv")
+                .with(csrf())
+                .contentType("text/csv")
+                .content("title\nFirst\n"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "/learnings/import/" + JOB_ID))
+                .andExpect(jsonPath("$.id").value(JOB_ID))
+                .andExpect(jsonPath("$.status").value("PENDING"));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testStartImportRejectsUnknownFormat() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/learnings/import")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_XML)
+                .content("<learnings/>"))
+                .andExpect(status().isBadRequest());
+        verify(learningImportService, never()).start(any(), any(), any());
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testStartImportWhenQueueFull() throws Exception {
+        // Given
+        when(learningImportService.start(eq("ndjson"), any(), any(InputStream.class)))
+                .thenThrow(new RejectedExecutionException("Import queue is full"));
+
+        // When & Then
+        mockMvc.perform(post("/learnings/import").param("format", "ndjson")
+                .with(csrf())
+                .content("{}\n"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().exists("Retry-After"));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testImportStatus() throws Exception {
+        // Given
+        when(learningImportService.find(JOB_ID)).thenReturn(Optional.of(new ImportJob(JOB_ID, "ndjson", null)));
+        when(learningImportService.find("missing")).thenReturn(Optional.empty());
+
+        // When & Then
+        mockMvc.perform(get("/learnings/import/" + JOB_ID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(0));
+        mockMvc.perform(get("/learnings/import/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testResumeCompletedImportConflicts() throws Exception {
+        // Given
+        when(learningImportService.resume(JOB_ID)).thenThrow(new IllegalStateException("Import is already completed"));
+
+        // When & Then
+        mockMvc.perform(post("/learnings/import/" + JOB_ID + "/resume").with(csrf()))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.error").value("Import is already completed"));
+    }
+}
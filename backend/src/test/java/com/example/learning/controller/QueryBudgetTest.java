@@ -0,0 +1,124 @@
+package com.example.learning.controller;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.entity.User;
+import com.example.learning.repository.LearningRepository;
+import com.example.learning.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * SQL statements per endpoint, read from the X-SQL-* debug headers. A budget
+ * that fails means a change added queries to the endpoint: fix the query
+ * amplification, or raise the budget deliberately.
+ */
+@SpringBootTest(properties = "learning.sql-stats.response-headers=true")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private Learning existing;
+
+    @BeforeEach
+    void setUp() {
+        learningRepository.deleteAll();
+        for (int i = 1; i <= 20; i++) {
+            Learning learning = new Learning();
+            learning.setTitle("Learning " + i);
+            learning.setCategory(i % 2 == 0 ? "Job" : "Life");
+            learning.setDate(LocalDate.of(2024, 1, i));
+            existing = learningRepository.save(learning);
+        }
+        if (userRepository.findByUsername("budget").isEmpty()) {
+            User user = new User();
+            user.setUsername("budget");
+            user.setEmail("budget@example.com");
+            user.setPassword(passwordEncoder.encode("password"));
+            user.setRoles("ROLE_USER");
+            user.setEnabled(true);
+            userRepository.save(user);
+        }
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetLearningsPage() throws Exception {
+        // When & Then - the page and its count
+        mockMvc.perform(get("/learnings").param("page", "0").param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-SQL-Rows", "11"))
+                .andExpect(sqlStatementsAtMost(2));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testGetLearning() throws Exception {
+        // When & Then - served from the second-level cache
+        mockMvc.perform(get("/learnings/" + existing.getId()))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementsAtMost(0));
+    }
+
+    @Test
+    @org.springframework.security.test.context.support.WithMockUser
+    void testUpdateLearning() throws Exception {
+        // When & Then - the update (findById hits the second-level cache), then five for syncing the new tag
+        mockMvc.perform(put("/learnings/" + existing.getId()).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Updated\",\"category\":\"Job\",\"date\":\"2024-02-01\",\"tags\":\"java\"}"))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementsAtMost(6));
+    }
+
+    @Test
+    void testLogin() throws Exception {
+        // Given
+        MvcResult started = mockMvc.perform(post("/auth/login").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"budget\",\"password\":\"password\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // When & Then - runs on the hashing pool, still counted for this request;
+        // the user is read once to authenticate and again to build the response
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(sqlStatementsAtMost(2));
+    }
+
+    private static ResultMatcher sqlStatementsAtMost(int budget) {
+        return result -> {
+            String statements = result.getResponse().getHeader("X-SQL-Statements");
+            assertThat(statements).as("X-SQL-Statements header").isNotNull();
+            assertThat(Long.parseLong(statements)).as("SQL statements").isLessThanOrEqualTo(budget);
+        };
+    }
+}
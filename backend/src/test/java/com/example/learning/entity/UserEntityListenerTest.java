@@ -0,0 +1,91 @@
+package com.example.learning.entity;
+
+import com.example.learning.cache.SecondLevelCacheInvalidator;
+import com.example.learning.security.PrincipalCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserEntityListenerTest {
+
+    private final PrincipalCache principalCache = new PrincipalCache(100, Duration.ofMinutes(5),
+            new SimpleMeterRegistry());
+    private UserEntityListener listener;
+
+    @BeforeEach
+    void setUp() {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(Map.of("principalCache", principalCache));
+        listener = new UserEntityListener(beanFactory.getBeanProvider(PrincipalCache.class),
+                beanFactory.getBeanProvider(SecondLevelCacheInvalidator.class));
+        cache("alice");
+        cache("alicia");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testEvictsOnlyAfterCommit() {
+        // Given
+        User user = loadedUser("alice");
+        user.setEnabled(false);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        listener.onUserChanged(user);
+
+        // Then - until the commit, other requests still read the old row anyway
+        assertThat(isCached("alice")).isTrue();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(isCached("alice")).isFalse();
+    }
+
+    @Test
+    void testRenameEvictsTheOldUsername() {
+        // Given
+        User user = loadedUser("alice");
+        user.setUsername("alicia");
+
+        // When
+        listener.onUserChanged(user);
+
+        // Then
+        assertThat(isCached("alice")).isFalse();
+        assertThat(isCached("alicia")).isFalse();
+    }
+
+    private User loadedUser(String username) {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername(username);
+        listener.onUserLoaded(user);
+        return user;
+    }
+
+    private void cache(String username) {
+        principalCache.get(username, name -> org.springframework.security.core.userdetails.User
+                .withUsername(name).password("hash").authorities(List.of()).build());
+    }
+
+    private boolean isCached(String username) {
+        UserDetails[] loaded = new UserDetails[1];
+        principalCache.get(username, name -> loaded[0] = org.springframework.security.core.userdetails.User
+                .withUsername(name).password("hash").authorities(List.of()).build());
+        return loaded[0] == null;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.learning.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records request latencies for one scenario. Samples go into a fixed-size
+ * array (oldest kept once full) so recording never allocates or locks.
+ */
+public class LatencyRecorder {
+
+    private final String name;
+    private final AtomicLongArray samples;
+    private final AtomicInteger sampleCount = new AtomicInteger();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public LatencyRecorder(String name, int maxSamples) {
+        this.name = name;
+        this.samples = new AtomicLongArray(maxSamples);
+    }
+
+    public void record(long nanos, int status) {
+        requests.incrementAndGet();
+        if (status == 503) {
+            rejected.incrementAndGet();
+        } else if (status < 200 || status >= 400) {
+            errors.incrementAndGet();
+        }
+        int index = sampleCount.getAndIncrement();
+        if (index < samples.length()) {
+            samples.set(index, nanos);
+        }
+    }
+
+    public void recordFailure() {
+        requests.incrementAndGet();
+        errors.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Map<String, Object> summary(long elapsedNanos) {
+        int count = Math.min(sampleCount.get(), samples.length());
+        long[] sorted = new long[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", requests.get());
+        summary.put("errors", errors.get());
+        summary.put("rejected", rejected.get());
+        summary.put("errorRate", requests.get() == 0 ? 0.0
+                : Math.round((errors.get() + rejected.get()) * 10_000.0 / requests.get()) / 10_000.0);
+        summary.put("throughputPerSecond", round(requests.get() / (elapsedNanos / 1_000_000_000.0)));
+        summary.put("p50Ms", percentileMillis(sorted, 0.50));
+        summary.put("p95Ms", percentileMillis(sorted, 0.95));
+        summary.put("p99Ms", percentileMillis(sorted, 0.99));
+        summary.put("maxMs", count == 0 ? 0.0 : round(sorted[count - 1] / 1_000_000.0));
+        return summary;
+    }
+
+    static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return round(sorted[Math.max(index, 0)] / 1_000_000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
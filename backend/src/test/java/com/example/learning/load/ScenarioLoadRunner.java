@@ -0,0 +1,348 @@
+package com.example.learning.load;
+
+import com.example.learning.LearningApplication;
+import com.example.learning.entity.Learning;
+import com.example.learning.entity.User;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningRepository;
+import com.example.learning.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Mixed-scenario load test at a fixed arrival rate. Boots the application on an
+ * in-memory H2 database ("test" profile, temporary upload directories), seeds
+ * learnings and users, then starts requests at {@code loadtest.rps} regardless
+ * of how fast earlier ones complete (open model). Latency is measured from the
+ * moment a request was due, so a stalled server shows up in the percentiles
+ * instead of silently lowering the load.
+ * <p>
+ * Scenarios: {@code list} (GET /learnings page), {@code search}, {@code create}
+ * (POST /learnings), {@code upload} (multipart POST /upload) and {@code login}.
+ * The request sequence is drawn from {@code loadtest.seed}, so two runs with
+ * the same settings send the same requests. Nothing is fetched from the
+ * network.
+ * <p>
+ * Run with {@code mvn -Ploadtest-scenarios verify -DskipTests}; tune with
+ * {@code -Dloadtest.rps}, {@code -Dloadtest.duration} and {@code -Dloadtest.warmup}
+ * (seconds), {@code -Dloadtest.rows}, {@code -Dloadtest.users},
+ * {@code -Dloadtest.mix=list:50,search:20,create:15,upload:10,login:5},
+ * {@code -Dloadtest.seed} and {@code -Dloadtest.max-error-rate} (fails the build
+ * when exceeded). The JSON report is written to {@code target/loadtest/}.
+ */
+public class ScenarioLoadRunner {
+
+    private static final String PASSWORD = "loadtest-password";
+    // Users logged in up front whose tokens the other scenarios use
+    private static final int SESSIONS = 20;
+    private static final String[] SEARCH_TERMS = { "spring", "java", "databases", "kubernetes", "notes" };
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int rps = Integer.getInteger("loadtest.rps", 200);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration", 30);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup", 5);
+    private final int rows = Integer.getInteger("loadtest.rows", 5000);
+    private final int users = Integer.getInteger("loadtest.users", 100);
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+    private final String mix = System.getProperty("loadtest.mix", "list:50,search:20,create:15,upload:10,login:5");
+    private final double maxErrorRate = Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01"));
+
+    public static void main(String[] args) throws Exception {
+        System.exit(new ScenarioLoadRunner().run());
+    }
+
+    private int run() throws Exception {
+        Map<String, Integer> weights = parseMix(mix);
+        Path uploadDir = Files.createTempDirectory("loadtest-uploads");
+        Map<String, Object> results;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LearningApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                // Arguments, as these are also set in the property files, which win over defaults
+                .run("--spring.datasource.url=jdbc:h2:mem:loadtest-scenarios;DB_CLOSE_DELAY=-1",
+                        "--management.server.port=-1",
+                        "--file.upload.path=" + uploadDir.resolve("files"),
+                        "--file.upload.chunked.path=" + uploadDir.resolve("partial"),
+                        "--file.import.path=" + uploadDir.resolve("imports"))) {
+            seed(context);
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port
+                    + context.getEnvironment().getProperty("server.servlet.context-path", "");
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .executor(executor)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                List<String> tokens = new ArrayList<>();
+                for (int i = 0; i < Math.min(SESSIONS, users); i++) {
+                    tokens.add(login(client, baseUrl, i));
+                }
+                if (warmupSeconds > 0) {
+                    drive(client, executor, baseUrl, tokens, weights, warmupSeconds, seed + 1);
+                }
+                results = drive(client, executor, baseUrl, tokens, weights, durationSeconds, seed);
+            }
+        } finally {
+            FileSystemUtils.deleteRecursively(uploadDir);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("targetRps", rps);
+        report.put("durationSeconds", durationSeconds);
+        report.put("warmupSeconds", warmupSeconds);
+        report.put("rows", rows);
+        report.put("users", users);
+        report.put("mix", weights);
+        report.put("seed", seed);
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.putAll(results);
+
+        File dir = new File("target/loadtest");
+        dir.mkdirs();
+        File out = new File(dir, "scenarios-" + LocalDateTime.now()
+                .format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, report);
+        System.out.println(objectMapper.writeValueAsString(results));
+        System.out.println("Load test report written to " + out.getPath());
+
+        @SuppressWarnings("unchecked")
+        double errorRate = (double) ((Map<String, Object>) results.get("total")).get("errorRate");
+        if (errorRate > maxErrorRate) {
+            System.err.println("Error rate " + errorRate + " exceeds loadtest.max-error-rate " + maxErrorRate);
+            return 1;
+        }
+        return 0;
+    }
+
+    private Map<String, Object> drive(HttpClient client, ExecutorService executor, String baseUrl,
+            List<String> tokens, Map<String, Integer> weights, int seconds, long runSeed) {
+        Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+        weights.keySet().forEach(name -> recorders.put(name, new LatencyRecorder(name, 1_000_000)));
+        LatencyRecorder total = new LatencyRecorder("total", 2_000_000);
+        int totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        SplittableRandom random = new SplittableRandom(runSeed);
+        AtomicInteger created = new AtomicInteger();
+        Phaser inFlight = new Phaser(1);
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / rps;
+        long requests = (long) rps * seconds;
+        long start = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long due = start + i * interval;
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            // Everything random is drawn here, on one thread, to keep the sequence reproducible
+            String scenario = pick(weights, totalWeight, random.nextInt(totalWeight));
+            String token = tokens.get(random.nextInt(tokens.size()));
+            int user = random.nextInt(users);
+            int page = random.nextInt(Math.max(rows / 20, 1));
+            int size = 512 + random.nextInt(32 * 1024);
+            HttpRequest request = switch (scenario) {
+                case "list" -> get(baseUrl + "/learnings?page=" + page + "&size=20", token);
+                case "search" -> get(baseUrl + "/learnings?search=" + SEARCH_TERMS[page % SEARCH_TERMS.length]
+                        + "&size=20", token);
+                case "create" -> post(baseUrl + "/learnings", token, newLearning(created.incrementAndGet()));
+                case "upload" -> upload(baseUrl, token, size);
+                case "login" -> post(baseUrl + "/auth/login", null, Map.of(
+                        "username", "user" + user, "password", PASSWORD));
+                default -> throw new IllegalArgumentException("Unknown scenario: " + scenario);
+            };
+            LatencyRecorder recorder = recorders.get(scenario);
+            inFlight.register();
+            executor.execute(() -> {
+                try {
+                    send(client, request, due, recorder, total);
+                } finally {
+                    inFlight.arriveAndDeregister();
+                }
+            });
+        }
+        inFlight.arriveAndAwaitAdvance();
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        recorders.forEach((name, recorder) -> scenarios.put(name, recorder.summary(elapsed)));
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("total", total.summary(elapsed));
+        result.put("scenarios", scenarios);
+        return result;
+    }
+
+    private static String pick(Map<String, Integer> weights, int totalWeight, int roll) {
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Weights do not add up to " + totalWeight);
+    }
+
+    private void send(HttpClient client, HttpRequest request, long due, LatencyRecorder... recorders) {
+        int status;
+        try {
+            status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            for (LatencyRecorder recorder : recorders) {
+                recorder.recordFailure();
+            }
+            return;
+        }
+        long latency = System.nanoTime() - due;
+        for (LatencyRecorder recorder : recorders) {
+            recorder.record(latency, status);
+        }
+    }
+
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            int weight = Integer.parseInt(nameAndWeight[1].trim());
+            if (weight > 0) {
+                weights.put(nameAndWeight[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no scenario with a positive weight");
+        }
+        return weights;
+    }
+
+    private String login(HttpClient client, String baseUrl, int user) throws Exception {
+        HttpResponse<String> response = client.send(post(baseUrl + "/auth/login", null, Map.of(
+                "username", "user" + user, "password", PASSWORD)), HttpResponse.BodyHandlers.ofString());
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("token").asText();
+    }
+
+    private Map<String, Object> newLearning(int n) {
+        Map<String, Object> learning = new LinkedHashMap<>();
+        learning.put("title", "Load test learning " + n);
+        learning.put("description", "Created under load");
+        learning.put("category", n % 2 == 0 ? "Job" : "Life");
+        learning.put("date", LocalDate.of(2024, 1, 1).plusDays(n % 365).toString());
+        learning.put("tags", "loadtest");
+        return learning;
+    }
+
+    private HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String url, String token, Map<String, Object> body) {
+        try {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)));
+            if (token != null) {
+                builder.header("Authorization", "Bearer " + token);
+            }
+            return builder.build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private HttpRequest upload(String baseUrl, String token, int size) {
+        String boundary = "loadtest-boundary";
+        ByteArrayOutputStream body = new ByteArrayOutputStream(size + 256);
+        body.writeBytes(("--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"file\"; filename=\"notes.txt\"\r\n"
+                + "Content-Type: text/plain\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        byte[] content = new byte[size];
+        for (int i = 0; i < size; i++) {
+            content[i] = (byte) ('a' + (i * 31 + size) % 26);
+        }
+        body.writeBytes(content);
+        body.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/upload"))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray()))
+                .build();
+    }
+
+    private void seed(ConfigurableApplicationContext context) {
+        // One BCrypt hash shared by every user keeps seeding fast
+        String hash = context.getBean(PasswordEncoder.class).encode(PASSWORD);
+        List<User> accounts = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            User user = new User();
+            user.setUsername("user" + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setPassword(hash);
+            user.setRoles("ROLE_USER");
+            user.setEnabled(true);
+            accounts.add(user);
+        }
+        context.getBean(UserRepository.class).saveAll(accounts);
+
+        LearningRepository repository = context.getBean(LearningRepository.class);
+        List<Learning> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Learning learning = new Learning();
+            learning.setTitle("Learning " + i);
+            learning.setDescription("Notes about " + SEARCH_TERMS[i % SEARCH_TERMS.length] + " #" + i);
+            learning.setCategory(i % 3 == 0 ? "Life" : "Job");
+            learning.setDate(LocalDate.of(2020, 1, 1).plusDays(i % 1500));
+            learning.setTags("java,spring");
+            batch.add(learning);
+            if (batch.size() == 500) {
+                save(context, repository, batch);
+            }
+        }
+        save(context, repository, batch);
+    }
+
+    // Published like the controller does, so search index, tags and facets include the seeded rows
+    private void save(ConfigurableApplicationContext context, LearningRepository repository, List<Learning> batch) {
+        for (Learning saved : repository.saveAll(batch)) {
+            context.publishEvent(LearningChangedEvent.created(saved));
+        }
+        batch.clear();
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.learning.load;
+
+import com.example.learning.LearningApplication;
+import com.example.learning.entity.Learning;
+import com.example.learning.repository.LearningRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compares request throughput and latency with platform threads (bounded
+ * Tomcat pool) against virtual threads. Boots the application once per mode
+ * on the in-memory "test" profile, seeds learnings, and drives a fixed number
+ * of concurrent clients against list, search and login endpoints.
+ * <p>
+ * Run with {@code mvn -Ploadtest verify -DskipTests}; tune with
+ * {@code -Dloadtest.clients}, {@code -Dloadtest.duration} (seconds),
+ * {@code -Dloadtest.rows} and {@code -Dloadtest.modes=platform,virtual}.
+ * Results are written to {@code target/loadtest/}.
+ * <p>
+ * Note: H2 synchronizes on the session, so a virtual thread inside JDBC pins
+ * its carrier; numbers against PostgreSQL (whose driver uses j.u.c locks)
+ * are the ones to trust for production sizing.
+ */
+public class ThreadingModeLoadRunner {
+
+    private static final String USERNAME = "loadtest";
+    private static final String PASSWORD = "loadtest-password";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final int clients = Integer.getInteger("loadtest.clients", 200);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration", 15);
+    private final int rows = Integer.getInteger("loadtest.rows", 2000);
+    private final String[] modes = System.getProperty("loadtest.modes", "platform,virtual").split(",");
+
+    public static void main(String[] args) throws Exception {
+        new ThreadingModeLoadRunner().run();
+    }
+
+    private void run() throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("clients", clients);
+        report.put("durationSeconds", durationSeconds);
+        report.put("rows", rows);
+        Map<String, Object> results = new LinkedHashMap<>();
+        for (String mode : modes) {
+            results.put(mode.trim(), runMode(mode.trim()));
+        }
+        report.put("results", results);
+
+        File dir = new File("target/loadtest");
+        dir.mkdirs();
+        File out = new File(dir, "threading-" + LocalDateTime.now()
+                .format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.enable(SerializationFeature.INDENT_OUTPUT).writeValue(out, report);
+        System.out.println(objectMapper.writeValueAsString(results));
+        System.out.println("Load test report written to " + out.getPath());
+    }
+
+    private Map<String, Object> runMode(String mode) throws Exception {
+        boolean virtual = mode.equals("virtual");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(LearningApplication.class)
+                .profiles("test")
+                .properties("server.port=0",
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN")
+                // Arguments, as these are also set in the property files, which win over defaults.
+                // Fresh database per mode so both runs see the same data
+                .run("--spring.datasource.url=jdbc:h2:mem:loadtest-" + mode + ";DB_CLOSE_DELAY=-1",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        // No actuator port, so a locally running instance doesn't make startup fail
+                        "--management.server.port=-1")) {
+            seed(context.getBean(LearningRepository.class));
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port
+                    + context.getEnvironment().getProperty("server.servlet.context-path", "");
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient client = HttpClient.newBuilder()
+                        .executor(executor)
+                        .connectTimeout(Duration.ofSeconds(10))
+                        .build();
+                String token = login(client, baseUrl);
+                return drive(client, executor, baseUrl, token);
+            }
+        }
+    }
+
+    private Map<String, Object> drive(HttpClient client, ExecutorService executor, String baseUrl, String token)
+            throws Exception {
+        LatencyRecorder list = new LatencyRecorder("list", 1_000_000);
+        LatencyRecorder search = new LatencyRecorder("search", 1_000_000);
+        LatencyRecorder login = new LatencyRecorder("login", 100_000);
+
+        long start = System.nanoTime();
+        long deadline = start + Duration.ofSeconds(durationSeconds).toNanos();
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            workers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    int pick = random.nextInt(100);
+                    if (pick < 70) {
+                        send(client, list, get(baseUrl + "/learnings?page=" + random.nextInt(20) + "&size=20", token));
+                    } else if (pick < 95) {
+                        send(client, search, get(baseUrl + "/learnings?search=spring", token));
+                    } else {
+                        send(client, login, loginRequest(baseUrl));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (LatencyRecorder recorder : List.of(list, search, login)) {
+            result.put(recorder.getName(), recorder.summary(elapsed));
+        }
+        return result;
+    }
+
+    private void send(HttpClient client, LatencyRecorder recorder, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            recorder.record(System.nanoTime() - start, response.statusCode());
+        } catch (Exception e) {
+            recorder.recordFailure();
+        }
+    }
+
+    private String login(HttpClient client, String baseUrl) throws Exception {
+        client.send(post(baseUrl + "/auth/register", Map.of(
+                "username", USERNAME, "email", "loadtest@example.com", "password", PASSWORD)),
+                HttpResponse.BodyHandlers.discarding());
+        HttpResponse<String> response = client.send(loginRequest(baseUrl), HttpResponse.BodyHandlers.ofString());
+        JsonNode body = objectMapper.readTree(response.body());
+        return body.get("token").asText();
+    }
+
+    private HttpRequest loginRequest(String baseUrl) {
+        return post(baseUrl + "/auth/login", Map.of("username", USERNAME, "password", PASSWORD));
+    }
+
+    private HttpRequest get(String url, String token) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    private HttpRequest post(String url, Map<String, Object> body) {
+        try {
+            return HttpRequest.newBuilder(URI.create(url))
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void seed(LearningRepository repository) {
+        List<Learning> batch = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            Learning learning = new Learning();
+            learning.setTitle("Learning " + i);
+            learning.setDescription("Notes about spring, java and databases #" + i);
+            learning.setCategory(i % 3 == 0 ? "Life" : "Job");
+            learning.setDate(LocalDate.of(2020, 1, 1).plusDays(i % 1500));
+            learning.setTags("java,spring");
+            batch.add(learning);
+            if (batch.size() == 500) {
+                repository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        repository.saveAll(batch);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.learning.repository;
+
+import com.example.learning.config.DatabasePlatform;
+import com.example.learning.entity.Learning;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({LearningCountEstimator.class, DatabasePlatform.class})
+class LearningCountEstimatorTest {
+
+    @Autowired
+    private LearningCountEstimator learningCountEstimator;
+
+    @org.springframework.boot.test.mock.mockito.SpyBean
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testIgnoresLearningTablesInOtherSchemas() {
+        // Given
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS archive");
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS archive.learning (id BIGINT PRIMARY KEY)");
+        Learning learning = new Learning();
+        learning.setTitle("Counted");
+        learningRepository.saveAndFlush(learning);
+
+        // When
+        long estimate = learningCountEstimator.estimateCount();
+
+        // Then - answered from the catalog, not by falling back to count(*)
+        assertThat(estimate).isGreaterThanOrEqualTo(0);
+        verify(learningRepository, never()).count();
+    }
+}
@@ -1,9 +1,13 @@
 package com.example.learning.repository;
 
+import com.example.learning.dto.LearningSummary;
 import com.example.learning.entity.Learning;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
@@ -139,6 +143,56 @@ class LearningRepositoryTest {
         assertThat(newCount).isEqualTo(initialCount + 1);
     }
 
+    @Test
+    void testKeysetPagination() {
+        // Given - an undated entry sorts first, then newest date first
+        learningRepository.deleteAll();
+        Learning undated = createTestLearning();
+        undated.setDate(null);
+        undated = learningRepository.save(undated);
+        Learning newest = createTestLearning();
+        newest.setDate(LocalDate.of(2024, 1, 1));
+        newest = learningRepository.save(newest);
+        Learning older1 = learningRepository.save(createTestLearning());
+        Learning older2 = learningRepository.save(createTestLearning());
+
+        // When
+        List<Learning> firstPage = learningRepository.findKeysetFirstPage(Limit.of(2));
+        List<Learning> secondPage = learningRepository.findKeysetPageAfter(
+                newest.getDate(), newest.getId(), Limit.of(2));
+        List<Learning> afterUndated = learningRepository.findKeysetPageAfterUndated(undated.getId(), Limit.of(10));
+
+        // Then
+        assertThat(firstPage).extracting(Learning::getId).containsExactly(undated.getId(), newest.getId());
+        assertThat(secondPage).extracting(Learning::getId).containsExactly(older2.getId(), older1.getId());
+        assertThat(afterUndated).extracting(Learning::getId)
+                .containsExactly(newest.getId(), older2.getId(), older1.getId());
+    }
+
+    @Test
+    void testSummaryProjection() {
+        // Given
+        learningRepository.deleteAll();
+        Learning learning = createTestLearning();
+        learning.setDescription("<p>Use <b>records</b> for&nbsp;DTOs</p>" + "<p>padding</p>".repeat(100));
+        learningRepository.save(learning);
+
+        // When
+        Page<LearningSummary> page = learningRepository.findSummaries(PageRequest.of(0, 10));
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(1);
+        LearningSummary summary = page.getContent().get(0);
+        assertThat(summary.getTitle()).isEqualTo("Test Learning");
+        assertThat(summary.getTags()).isEqualTo("java,spring");
+        assertThat(summary.getDate()).isEqualTo(LocalDate.of(2023, 10, 15));
+        assertThat(summary.getDescriptionSnippet())
+                .startsWith("Use records for DTOs padding")
+                .endsWith("…")
+                .doesNotContain("<", ">")
+                .hasSizeLessThanOrEqualTo(201);
+    }
+
     private Learning createTestLearning() {
         Learning learning = new Learning();
         learning.setTitle("Test Learning");
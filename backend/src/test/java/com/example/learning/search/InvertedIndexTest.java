@@ -0,0 +1,75 @@
+package com.example.learning.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    @Test
+    void testSearchRequiresAllTokens() {
+        // Given
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, Map.of("spring", 3f, "boot", 1f));
+        index.put(2L, Map.of("spring", 1f, "security", 1f));
+
+        // When
+        List<Long> ids = index.search(List.of("spring", "boot"));
+
+        // Then
+        assertThat(ids).containsExactly(1L);
+    }
+
+    @Test
+    void testSearchRanksHigherWeightFirst() {
+        // Given
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, Map.of("java", 1f));
+        index.put(2L, Map.of("java", 3f));
+        index.put(3L, Map.of("kotlin", 1f));
+
+        // When
+        List<Long> ids = index.search(List.of("java"));
+
+        // Then
+        assertThat(ids).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testSearchMatchesPrefixesBelowExactTerms() {
+        // Given
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, Map.of("javascript", 1f));
+        index.put(2L, Map.of("java", 1f));
+
+        // When
+        List<Long> ids = index.search(List.of("java"));
+
+        // Then
+        assertThat(ids).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void testPutReplacesAndRemoveDeletesDocument() {
+        // Given
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, Map.of("draft", 1f));
+
+        // When
+        index.put(1L, Map.of("final", 1f));
+
+        // Then
+        assertThat(index.search(List.of("draft"))).isEmpty();
+        assertThat(index.search(List.of("final"))).containsExactly(1L);
+
+        // When
+        index.remove(1L);
+
+        // Then
+        assertThat(index.search(List.of("final"))).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+}
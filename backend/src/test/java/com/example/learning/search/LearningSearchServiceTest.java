@@ -0,0 +1,97 @@
+package com.example.learning.search;
+
+import com.example.learning.config.DatabasePlatform;
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ LearningSearchService.class, DatabasePlatform.class })
+class LearningSearchServiceTest {
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private LearningSearchService learningSearchService;
+
+    @Test
+    void testUsesInMemoryIndexOnH2() {
+        assertThat(learningSearchService.getEngine()).isEqualTo(LearningSearchService.Engine.MEMORY);
+    }
+
+    @Test
+    void testSearchRanksTitleMatchesFirst() {
+        // Given
+        learningRepository.save(createLearning("Notes", "Spring uses java under the hood", "misc"));
+        Learning titleMatch = learningRepository.save(createLearning("Java records", "Immutable data", "lang"));
+        learningRepository.save(createLearning("Cooking", "Pasta", "food"));
+        learningSearchService.rebuildIndex();
+
+        // When
+        Page<Learning> results = learningSearchService.search("java", PageRequest.of(0, 10));
+
+        // Then
+        assertThat(results.getTotalElements()).isEqualTo(2);
+        assertThat(results.getContent().get(0).getId()).isEqualTo(titleMatch.getId());
+    }
+
+    @Test
+    void testIndexFollowsChangeEvents() {
+        // Given
+        learningSearchService.rebuildIndex();
+        Learning learning = learningRepository.save(createLearning("Gradle", "Build tool", "tools"));
+
+        // When
+        learningSearchService.onLearningChanged(LearningChangedEvent.created(learning));
+
+        // Then
+        assertThat(learningSearchService.search("grad", PageRequest.of(0, 10)).getContent())
+                .extracting(Learning::getTitle).containsExactly("Gradle");
+
+        // When
+        learningSearchService.onLearningChanged(LearningChangedEvent.deleted(learning));
+
+        // Then
+        assertThat(learningSearchService.search("gradle", PageRequest.of(0, 10)).getTotalElements()).isZero();
+    }
+
+    @Test
+    void testSearchPaginatesRankedResults() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            learningRepository.save(createLearning("Kafka part " + i, "Streams", "infra"));
+        }
+        learningSearchService.rebuildIndex();
+
+        // When
+        Page<Learning> secondPage = learningSearchService.search("kafka", PageRequest.of(1, 2));
+
+        // Then
+        assertThat(secondPage.getTotalElements()).isEqualTo(5);
+        assertThat(secondPage.getTotalPages()).isEqualTo(3);
+        assertThat(secondPage.getContent()).hasSize(2);
+    }
+
+    private Learning createLearning(String title, String description, String tags) {
+        Learning learning = new Learning();
+        learning.setTitle(title);
+        learning.setDescription(description);
+        learning.setCategory("Job");
+        learning.setDate(LocalDate.of(2023, 10, 15));
+        learning.setTags(tags);
+        return learning;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.learning.security;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JwtUtilTest {
+
+    private final JwtUtil jwtUtil = new JwtUtil(10_000, Duration.ofSeconds(60), new SimpleMeterRegistry());
+    private final UserDetails alice = new User("alice", "password", List.of());
+
+    @Test
+    void testParseTokenReturnsClaims() {
+        // Given
+        String token = jwtUtil.generateToken(alice);
+
+        // When
+        Claims claims = jwtUtil.parseToken(token);
+
+        // Then
+        assertThat(claims.getSubject()).isEqualTo("alice");
+        assertThat(jwtUtil.validateToken(claims, alice)).isTrue();
+        assertThat(jwtUtil.validateToken(claims, new User("bob", "password", List.of()))).isFalse();
+    }
+
+    @Test
+    void testParseTokenServesHotTokensFromCache() {
+        // Given
+        String token = jwtUtil.generateToken(alice);
+
+        // When & Then - the verified claims are reused instead of parsed again
+        assertThat(jwtUtil.parseToken(token)).isSameAs(jwtUtil.parseToken(token));
+    }
+
+    @Test
+    void testParseTokenRejectsTamperedAndMalformedTokens() {
+        // Given
+        String token = jwtUtil.generateToken(alice);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // When & Then
+        assertThat(jwtUtil.parseToken(tampered)).isNull();
+        assertThat(jwtUtil.parseToken("not-a-jwt")).isNull();
+        assertThat(jwtUtil.validateToken("not-a-jwt")).isFalse();
+    }
+
+    @Test
+    void testParseTokenWithoutCache() {
+        // Given
+        JwtUtil uncached = new JwtUtil(0, Duration.ZERO, new SimpleMeterRegistry());
+        String token = uncached.generateToken(alice);
+
+        // When & Then
+        assertThat(uncached.parseToken(token).getSubject()).isEqualTo("alice");
+        assertThat(uncached.validateToken(token, alice)).isTrue();
+    }
+
+    @Test
+    void testParseTokenRecordsVerifyTimings() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        JwtUtil timed = new JwtUtil(10, Duration.ofMinutes(1), registry);
+        String token = timed.generateToken(alice);
+
+        // When
+        timed.parseToken(token);
+        timed.parseToken(token);
+        timed.parseToken("not-a-jwt");
+
+        // Then
+        assertThat(registry.get("auth.jwt.verify").tag("outcome", "valid").timer().count()).isEqualTo(1);
+        assertThat(registry.get("auth.jwt.verify").tag("outcome", "cached").timer().count()).isEqualTo(1);
+        assertThat(registry.get("auth.jwt.verify").tag("outcome", "invalid").timer().count()).isEqualTo(1);
+    }
+}
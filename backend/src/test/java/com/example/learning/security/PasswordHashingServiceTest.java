@@ -0,0 +1,68 @@
+package com.example.learning.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(4);
+    private final PasswordHashingService hashingService =
+            new PasswordHashingService(passwordEncoder, 1, 1, 2, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        hashingService.destroy();
+    }
+
+    @Test
+    void testEncodeRunsOnHashingPoolAndRecordsTimers() throws Exception {
+        // When
+        String hash = hashingService.encode("secret123").get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertThat(passwordEncoder.matches("secret123", hash)).isTrue();
+        assertThat(meterRegistry.get("auth.hashing.duration").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("auth.hashing.queue.wait").tag("operation", "encode").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testSubmissionIsRejectedWhenQueueIsFull() throws Exception {
+        // Given - the only thread is busy and the single queue slot is taken
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = hashingService.verify(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = hashingService.encode("queued");
+
+        // When / Then
+        assertThatThrownBy(() -> hashingService.encode("rejected"))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(meterRegistry.get("auth.hashing.rejected").counter().count()).isEqualTo(1.0);
+        assertThat(hashingService.getRetryAfterSeconds()).isEqualTo(2);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isNotEmpty();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.learning.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PrincipalCache principalCache = new PrincipalCache(100, Duration.ofMinutes(5), meterRegistry);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final Function<String, UserDetails> loader = username -> {
+        loads.incrementAndGet();
+        return new User(username, "password", List.of());
+    };
+
+    @Test
+    void testSecondLookupIsServedFromCache() {
+        // When
+        principalCache.get("alice", loader);
+        principalCache.get("alice", loader);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "principals").tag("result", "hit")
+                .functionCounter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "principals").tag("result", "miss")
+                .functionCounter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void testEvictForcesReload() {
+        // Given
+        principalCache.get("alice", loader);
+
+        // When
+        principalCache.evict("alice");
+        principalCache.get("alice", loader);
+
+        // Then
+        assertThat(loads.get()).isEqualTo(2);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.AttachmentRef;
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.AttachmentRefRepository;
+import com.example.learning.repository.LearningRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.AdditionalAnswers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@DataJpaTest
+@ActiveProfiles("test")
+// Ref counts are written in their own transaction, as after a real commit
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class AttachmentRefServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    @Autowired
+    private AttachmentRefRepository attachmentRefRepository;
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private AttachmentStorageService storage;
+    private AttachmentRefService refService;
+
+    @BeforeEach
+    void setUp() {
+        attachmentRefRepository.deleteAll();
+        learningRepository.deleteAll();
+        storage = new AttachmentStorageService(uploadDir.toString(), "content-addressed", new SimpleMeterRegistry());
+        refService = new AttachmentRefService(attachmentRefRepository, learningRepository, storage,
+                new ObjectMapper(), transactionManager, Duration.ofHours(1));
+    }
+
+    @Test
+    void testRefCountFollowsLearningChanges() throws Exception {
+        // Given
+        String shot = store("screenshot");
+        Learning first = learning(1L, shot);
+        Learning second = learning(2L, shot);
+
+        // When
+        refService.onLearningChanged(LearningChangedEvent.created(first));
+        refService.onLearningChanged(LearningChangedEvent.created(second));
+
+        // Then
+        assertThat(refService.getRefCount(shot)).isEqualTo(2);
+
+        // When - one learning drops the attachment, the other is deleted
+        refService.onLearningChanged(LearningChangedEvent.updated(first, learning(1L, null)));
+        refService.onLearningChanged(LearningChangedEvent.deleted(second));
+
+        // Then
+        assertThat(refService.getRefCount(shot)).isZero();
+    }
+
+    @Test
+    void testConcurrentFirstReferencesAreBothCounted() throws Exception {
+        // Given - another learning creates the row between our update and our insert
+        String shot = store("racy");
+        AttachmentRefRepository racingRepository = mock(AttachmentRefRepository.class,
+                AdditionalAnswers.delegatesTo(attachmentRefRepository));
+        AtomicBoolean raced = new AtomicBoolean();
+        doAnswer(invocation -> {
+            int updated = attachmentRefRepository.adjustRefCount(invocation.getArgument(0), invocation.getArgument(1));
+            if (updated == 0 && raced.compareAndSet(false, true)) {
+                attachmentRefRepository.save(new AttachmentRef(invocation.getArgument(0), 1));
+            }
+            return updated;
+        }).when(racingRepository).adjustRefCount(any(), anyLong());
+        AttachmentRefService racingService = new AttachmentRefService(racingRepository, learningRepository,
+                storage, new ObjectMapper(), transactionManager, Duration.ofHours(1));
+
+        // When
+        racingService.adjust(List.of(LearningChangedEvent.created(learning(1L, shot))));
+
+        // Then
+        assertThat(refService.getRefCount(shot)).isEqualTo(2);
+    }
+
+    @Test
+    void testSweepRemovesOnlyOldUnreferencedFiles() throws Exception {
+        // Given
+        String orphan = store("orphan");
+        String referenced = store("referenced");
+        String fresh = store("fresh");
+        Instant old = Instant.now().minus(Duration.ofDays(2));
+        Files.setLastModifiedTime(uploadDir.resolve(orphan), FileTime.from(old));
+        Files.setLastModifiedTime(uploadDir.resolve(referenced), FileTime.from(old));
+        refService.onLearningChanged(LearningChangedEvent.created(learning(1L, referenced)));
+
+        // When
+        int deleted = refService.sweepOrphans();
+
+        // Then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(uploadDir.resolve(orphan)).doesNotExist();
+        assertThat(uploadDir.resolve(referenced)).exists();
+        assertThat(uploadDir.resolve(fresh)).exists();
+    }
+
+    @Test
+    void testSweepKeepsFileStillListedByALearning() throws Exception {
+        // Given - referenced in the table but the ref count was never recorded
+        String shot = store("uncounted");
+        Files.setLastModifiedTime(uploadDir.resolve(shot), FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+        Learning saved = new Learning();
+        saved.setTitle("Has attachment");
+        saved.setAttachments(attachmentsJson(shot));
+        learningRepository.save(saved);
+
+        // When
+        int deleted = refService.sweepOrphans();
+
+        // Then
+        assertThat(deleted).isZero();
+        assertThat(uploadDir.resolve(shot)).exists();
+    }
+
+    private String store(String content) throws Exception {
+        return storage.store(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "file.png");
+    }
+
+    private static Learning learning(Long id, String fileName) {
+        Learning learning = new Learning();
+        learning.setId(id);
+        learning.setTitle("Learning " + id);
+        learning.setAttachments(fileName != null ? attachmentsJson(fileName) : null);
+        return learning;
+    }
+
+    private static String attachmentsJson(String fileName) {
+        return "[{\"url\":\"http://localhost/api/uploads/" + fileName + "\",\"filename\":\"file.png\"}]";
+    }
+}
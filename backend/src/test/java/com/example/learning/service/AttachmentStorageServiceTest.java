@@ -0,0 +1,120 @@
+package com.example.learning.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttachmentStorageServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final byte[] content = "same screenshot bytes".getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void testUuidModeStoresEveryUpload() throws Exception {
+        // Given
+        AttachmentStorageService storage = storage("uuid");
+
+        // When
+        String first = storage.store(new ByteArrayInputStream(content), "shot.png");
+        String second = storage.store(new ByteArrayInputStream(content), "shot.png");
+
+        // Then
+        assertThat(first).isNotEqualTo(second).endsWith(".png");
+        assertThat(storedFiles()).isEqualTo(2);
+        assertThat(storage.findByDigest(sha256(content), "shot.png")).isEmpty();
+    }
+
+    @Test
+    void testContentAddressedModeStoresDuplicateOnce() throws Exception {
+        // Given
+        AttachmentStorageService storage = storage("content-addressed");
+
+        // When
+        String first = storage.store(new ByteArrayInputStream(content), "shot.PNG");
+        String second = storage.store(new ByteArrayInputStream(content), "copy.png");
+
+        // Then
+        assertThat(first).isEqualTo(sha256(content) + ".png").isEqualTo(second);
+        assertThat(AttachmentStorageService.isContentAddressedName(first)).isTrue();
+        assertThat(storedFiles()).isEqualTo(1);
+        assertThat(Files.readAllBytes(uploadDir.resolve(first))).isEqualTo(content);
+    }
+
+    @Test
+    void testFindByDigestShortCircuitsKnownContent() throws Exception {
+        // Given
+        AttachmentStorageService storage = storage("content-addressed");
+        String stored = storage.store(new ByteArrayInputStream(content), "shot.png");
+
+        // When / Then
+        assertThat(storage.findByDigest(sha256(content).toUpperCase(), "other.png")).contains(stored);
+        assertThat(storage.findByDigest(sha256("unknown".getBytes(StandardCharsets.UTF_8)), "shot.png")).isEmpty();
+        assertThat(storage.findByDigest("../../etc/passwd", "shot.png")).isEmpty();
+    }
+
+    @Test
+    void testDuplicatesRestartTheOrphanGracePeriod() throws Exception {
+        // Given - stored long ago and unreferenced since, so next in line for the orphan sweep
+        AttachmentStorageService storage = storage("content-addressed");
+        String stored = storage.store(new ByteArrayInputStream(content), "shot.png");
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofDays(2)));
+        Files.setLastModifiedTime(uploadDir.resolve(stored), old);
+
+        // When
+        storage.store(new ByteArrayInputStream(content), "copy.png");
+
+        // Then
+        assertThat(Files.getLastModifiedTime(uploadDir.resolve(stored))).isGreaterThan(old);
+
+        // And the same for content attached by digest only
+        Files.setLastModifiedTime(uploadDir.resolve(stored), old);
+        assertThat(storage.findByDigest(sha256(content), "shot.png")).contains(stored);
+        assertThat(Files.getLastModifiedTime(uploadDir.resolve(stored))).isGreaterThan(old);
+    }
+
+    @Test
+    void testStoreFileMovesExistingFile() throws Exception {
+        // Given
+        AttachmentStorageService storage = storage("content-addressed");
+        storage.store(new ByteArrayInputStream(content), "shot.png");
+        Path partial = Files.write(uploadDir.resolveSibling(uploadDir.getFileName() + "-partial"), content);
+
+        // When
+        String stored = storage.storeFile(partial, "again.png");
+
+        // Then
+        assertThat(stored).isEqualTo(sha256(content) + ".png");
+        assertThat(partial).doesNotExist();
+        assertThat(storedFiles()).isEqualTo(1);
+    }
+
+    private AttachmentStorageService storage(String mode) {
+        return new AttachmentStorageService(uploadDir.toString(), mode, meterRegistry);
+    }
+
+    private long storedFiles() throws Exception {
+        try (Stream<Path> files = Files.list(uploadDir)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static String sha256(byte[] bytes) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.learning.service;
+
+import com.example.learning.service.ChunkedUploadService.ChecksumMismatchException;
+import com.example.learning.service.ChunkedUploadService.OffsetMismatchException;
+import com.example.learning.service.ChunkedUploadService.UploadNotFoundException;
+import com.example.learning.service.ChunkedUploadService.UploadSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChunkedUploadServiceTest {
+
+    @TempDir
+    Path tempDir;
+
+    private ChunkedUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        service = new ChunkedUploadService(
+                new AttachmentStorageService(tempDir.resolve("uploads").toString(), "uuid", meterRegistry),
+                tempDir.resolve("partial").toString(), DataSize.ofMegabytes(1), DataSize.ofBytes(8),
+                Duration.ofHours(1), meterRegistry);
+    }
+
+    @Test
+    void testChunksAreAppendedAndCompletedUpload() throws Exception {
+        // Given
+        byte[] content = "hello chunked world".getBytes(StandardCharsets.UTF_8);
+        UploadSession session = service.initiate("notes.txt", content.length);
+
+        // When
+        long offset = 0;
+        while (offset < content.length) {
+            int length = (int) Math.min(8, content.length - offset);
+            offset = service.writeChunk(session.getId(), offset,
+                    new ByteArrayInputStream(content, (int) offset, length), null);
+        }
+        String storedName = service.complete(session.getId(), sha256(content));
+
+        // Then
+        assertThat(storedName).endsWith(".txt");
+        assertThat(Files.readAllBytes(tempDir.resolve("uploads").resolve(storedName))).isEqualTo(content);
+        assertThat(service.find(session.getId())).isEmpty();
+    }
+
+    @Test
+    void testWrongOffsetReportsCommittedOffset() throws Exception {
+        // Given
+        UploadSession session = service.initiate("a.bin", 16);
+        service.writeChunk(session.getId(), 0, new ByteArrayInputStream(new byte[8]), null);
+
+        // When / Then - the client resumes from the reported offset
+        assertThatThrownBy(() -> service.writeChunk(session.getId(), 0, new ByteArrayInputStream(new byte[8]), null))
+                .isInstanceOf(OffsetMismatchException.class)
+                .extracting(ex -> ((OffsetMismatchException) ex).getCommittedOffset())
+                .isEqualTo(8L);
+        assertThat(service.find(session.getId()).orElseThrow().getOffset()).isEqualTo(8);
+    }
+
+    @Test
+    void testChecksumMismatchRollsBackChunk() throws Exception {
+        // Given
+        UploadSession session = service.initiate("a.bin", 16);
+        byte[] chunk = "12345678".getBytes(StandardCharsets.UTF_8);
+
+        // When / Then
+        assertThatThrownBy(() -> service.writeChunk(session.getId(), 0, new ByteArrayInputStream(chunk),
+                sha256("something else".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(ChecksumMismatchException.class);
+        assertThat(service.find(session.getId()).orElseThrow().getOffset()).isZero();
+
+        assertThat(service.writeChunk(session.getId(), 0, new ByteArrayInputStream(chunk), sha256(chunk)))
+                .isEqualTo(8);
+    }
+
+    @Test
+    void testOversizedChunkIsRejected() throws Exception {
+        // Given
+        UploadSession session = service.initiate("a.bin", 32);
+
+        // When / Then
+        assertThatThrownBy(() -> service.writeChunk(session.getId(), 0, new ByteArrayInputStream(new byte[9]), null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(service.find(session.getId()).orElseThrow().getOffset()).isZero();
+    }
+
+    @Test
+    void testCompleteRequiresAllBytes() throws Exception {
+        // Given
+        UploadSession session = service.initiate("a.bin", 16);
+        service.writeChunk(session.getId(), 0, new ByteArrayInputStream(new byte[8]), null);
+
+        // When / Then
+        assertThatThrownBy(() -> service.complete(session.getId(), null))
+                .isInstanceOf(OffsetMismatchException.class);
+    }
+
+    @Test
+    void testUnknownIdsDoNotLeaveLocksBehind() throws Exception {
+        // Given
+        String unknown = "00000000-0000-0000-0000-000000000000";
+        UploadSession session = service.initiate("a.bin", 8);
+        service.writeChunk(session.getId(), 0, new ByteArrayInputStream(new byte[8]), null);
+        service.abort(session.getId());
+
+        // When / Then
+        assertThatThrownBy(() -> service.writeChunk(unknown, 0, new ByteArrayInputStream(new byte[8]), null))
+                .isInstanceOf(UploadNotFoundException.class);
+        assertThatThrownBy(() -> service.complete("not-an-upload-id", null))
+                .isInstanceOf(UploadNotFoundException.class);
+        assertThatThrownBy(() -> service.complete(session.getId(), null))
+                .isInstanceOf(UploadNotFoundException.class);
+        assertThat(service.lockCount()).isZero();
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.learning.service;
+
+import com.example.learning.config.DatabasePlatform;
+import com.example.learning.entity.Learning;
+import com.example.learning.repository.LearningRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(DatabasePlatform.class)
+class CustomPropertyQueryServiceTest {
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private DatabasePlatform databasePlatform;
+
+    private CustomPropertyQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        queryService = new CustomPropertyQueryService(learningRepository, databasePlatform, new ObjectMapper());
+    }
+
+    @Test
+    void testFindsExactPropertyMatchesOnH2() {
+        // Given
+        Learning hard = save("Graphs", "{\"difficulty\":\"hard\",\"source\":\"book\"}");
+        save("Arrays", "{\"difficulty\":\"easy\",\"source\":\"book\"}");
+        save("Tricky", "{\"note\":\"difficulty: hard\"}");
+        save("Numeric", "{\"difficulty\":3}");
+        save("Broken", "{difficulty");
+        save("Plain", null);
+
+        // When
+        Page<Learning> result = queryService.findByProperties(Map.of("difficulty", "hard"), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent()).extracting(Learning::getId).containsExactly(hard.getId());
+    }
+
+    @Test
+    void testAllPropertiesMustMatchAndResultsArePaged() {
+        // Given
+        for (int i = 0; i < 5; i++) {
+            save("Book " + i, "{\"difficulty\":\"hard\",\"source\":\"book\"}");
+        }
+        save("Video", "{\"difficulty\":\"hard\",\"source\":\"video\"}");
+
+        // When
+        Page<Learning> page = queryService.findByProperties(Map.of("difficulty", "hard", "source", "book"),
+                PageRequest.of(1, 2));
+
+        // Then
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).extracting(Learning::getTitle).containsExactly("Book 2", "Book 3");
+    }
+
+    private Learning save(String title, String customProperties) {
+        Learning learning = new Learning();
+        learning.setTitle(title);
+        learning.setCustomProperties(customProperties);
+        return learningRepository.save(learning);
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.learning.service;
+
+import com.example.learning.config.DatabasePlatform;
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningRepository;
+import com.example.learning.repository.LearningTagRepository;
+import com.example.learning.repository.TagRepository;
+import com.example.learning.search.LearningSearchService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ LearningSearchService.class, DatabasePlatform.class })
+class FacetServiceTest {
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private LearningTagRepository learningTagRepository;
+
+    @Autowired
+    private LearningSearchService learningSearchService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TagService tagService;
+    private FacetService facetService;
+
+    @BeforeEach
+    void setUp() {
+        tagService = new TagService(tagRepository, learningTagRepository, entityManager, transactionManager);
+        facetService = new FacetService(learningRepository, learningTagRepository, learningSearchService);
+    }
+
+    @Test
+    void testCountsPerCategoryTagAndMonth() {
+        // Given
+        save("Records", "Job", "java", LocalDate.of(2024, 5, 3));
+        save("Streams", "Job", "java,streams", LocalDate.of(2024, 5, 20));
+        save("Bread", "Life", "cooking", LocalDate.of(2024, 6, 1));
+        save("Undated", null, null, null);
+
+        // When
+        Map<String, Object> facets = facetService.getFacets(null, 50);
+
+        // Then
+        assertThat(facets.get("categories")).isEqualTo(Map.of("Job", 2L, "Life", 1L));
+        assertThat(facets.get("tags")).isEqualTo(Map.of("java", 2L, "streams", 1L, "cooking", 1L));
+        assertThat(facets.get("months")).isEqualTo(Map.of("2024-05", 2L, "2024-06", 1L));
+        assertThat(((Map<?, ?>) facets.get("tags")).keySet()).first().isEqualTo("java");
+    }
+
+    @Test
+    void testCacheFollowsChangeEvents() {
+        // Given
+        Learning learning = save("Records", "Job", "java", LocalDate.of(2024, 5, 3));
+        facetService.rebuild();
+
+        // When - moved to another category, month and tag
+        Learning before = LearningChangedEvent.snapshot(learning);
+        learning.setCategory("Life");
+        learning.setTags("kotlin");
+        learning.setDate(LocalDate.of(2024, 7, 1));
+        facetService.onLearningChanged(LearningChangedEvent.updated(before, learning));
+        Learning added = save("Streams", "Job", "java", LocalDate.of(2024, 5, 20));
+        facetService.onLearningChanged(LearningChangedEvent.created(added));
+
+        // Then
+        Map<String, Object> facets = facetService.getFacets("", 50);
+        assertThat(facets.get("categories")).isEqualTo(Map.of("Job", 1L, "Life", 1L));
+        assertThat(facets.get("tags")).isEqualTo(Map.of("java", 1L, "kotlin", 1L));
+        assertThat(facets.get("months")).isEqualTo(Map.of("2024-05", 1L, "2024-07", 1L));
+
+        // When
+        facetService.onLearningChanged(LearningChangedEvent.deleted(added));
+
+        // Then
+        assertThat(facetService.getFacets(null, 50).get("categories")).isEqualTo(Map.of("Life", 1L));
+    }
+
+    @Test
+    void testSearchScopedCountsAndTagLimit() {
+        // Given
+        save("Java records", "Job", "java,records", LocalDate.of(2024, 5, 3));
+        save("Java streams", "Job", "java,streams", LocalDate.of(2024, 6, 3));
+        save("Bread", "Life", "cooking", LocalDate.of(2024, 6, 1));
+        learningSearchService.rebuildIndex();
+
+        // When
+        Map<String, Object> facets = facetService.getFacets("java", 1);
+
+        // Then
+        assertThat(facets.get("categories")).isEqualTo(Map.of("Job", 2L));
+        assertThat(facets.get("tags")).isEqualTo(Map.of("java", 2L));
+        assertThat(facets.get("months")).isEqualTo(Map.of("2024-05", 1L, "2024-06", 1L));
+    }
+
+    private Learning save(String title, String category, String tags, LocalDate date) {
+        Learning learning = new Learning();
+        learning.setTitle(title);
+        learning.setCategory(category);
+        learning.setTags(tags);
+        learning.setDate(date);
+        Learning saved = learningRepository.save(learning);
+        tagService.onLearningChanged(LearningChangedEvent.created(saved));
+        return saved;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.learning.service;
+
+import com.example.learning.dto.LearningBatchRequest;
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.repository.AttachmentRefRepository;
+import com.example.learning.repository.LearningRepository;
+import com.example.learning.repository.LearningTagRepository;
+import com.example.learning.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class LearningBatchServiceTest {
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private LearningTagRepository learningTagRepository;
+
+    @Autowired
+    private AttachmentRefRepository attachmentRefRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Object> events = new ArrayList<>();
+    private LearningBatchService batchService;
+
+    @BeforeEach
+    void setUp() {
+        learningRepository.deleteAll();
+        com.fasterxml.jackson.databind.ObjectMapper objectMapper = new com.fasterxml.jackson.databind.ObjectMapper();
+        batchService = new LearningBatchService(learningRepository,
+                new LearningValidator(objectMapper),
+                new TagService(tagRepository, learningTagRepository, entityManager, transactionManager),
+                new AttachmentRefService(attachmentRefRepository, learningRepository,
+                        org.mockito.Mockito.mock(AttachmentStorageService.class), objectMapper, transactionManager,
+                        Duration.ofHours(1)),
+                events::add, entityManager, 5000, 50);
+    }
+
+    @Test
+    void testCreatesAreSentAsJdbcBatches() {
+        // Given
+        LearningBatchRequest request = new LearningBatchRequest();
+        for (int i = 0; i < 120; i++) {
+            request.getCreate().add(learning("Imported " + i));
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        LearningBatchService.Result result = batchService.apply(request, true);
+
+        // Then
+        assertThat(result.isApplied()).isTrue();
+        assertThat(result.getCreated()).hasSize(120).doesNotContainNull().doesNotHaveDuplicates();
+        assertThat(learningRepository.count()).isEqualTo(120);
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(120);
+        // Three insert batches plus a few sequence calls, instead of 120 statements
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(15);
+    }
+
+    @Test
+    void testTagsAndRefCountsAreReconciledInBulk() {
+        // Given
+        String file = "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef.png";
+        LearningBatchRequest request = new LearningBatchRequest();
+        for (int i = 0; i < 120; i++) {
+            Learning learning = learning("Imported " + i);
+            learning.setTags("import, batch" + (i % 3));
+            learning.setAttachments("[{\"url\":\"/uploads/" + file + "\"}]");
+            request.getCreate().add(learning);
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        LearningBatchService.Result result = batchService.apply(request, true);
+        entityManager.flush();
+
+        // Then - one event for the whole batch, join rows written in batches
+        assertThat(events).singleElement().isInstanceOfSatisfying(LearningBatchChangedEvent.class,
+                event -> assertThat(event.getChanges()).hasSize(120));
+        assertThat(learningTagRepository.findTagNamesByLearningId(result.getCreated().get(0)))
+                .containsExactlyInAnyOrder("import", "batch0");
+        assertThat(learningTagRepository.count()).isEqualTo(240);
+        assertThat(tagRepository.count()).isEqualTo(4);
+        assertThat(attachmentRefRepository.findById(file)).get()
+                .satisfies(ref -> assertThat(ref.getRefCount()).isEqualTo(120));
+        assertThat(statistics.getPrepareStatementCount()).isLessThan(40);
+    }
+
+    @Test
+    void testUpdatesAndDeletes() {
+        // Given
+        Learning kept = learningRepository.save(learning("Kept"));
+        Learning removed = learningRepository.save(learning("Removed"));
+        Learning change = learning("Renamed");
+        change.setId(kept.getId());
+        LearningBatchRequest request = new LearningBatchRequest();
+        request.getUpdate().add(change);
+        request.getDelete().add(removed.getId());
+
+        // When
+        LearningBatchService.Result result = batchService.apply(request, true);
+
+        // Then
+        assertThat(result.getUpdated()).containsExactly(kept.getId());
+        assertThat(result.getDeleted()).containsExactly(removed.getId());
+        assertThat(learningRepository.findById(kept.getId())).get()
+                .extracting(Learning::getTitle).isEqualTo("Renamed");
+        assertThat(learningRepository.existsById(removed.getId())).isFalse();
+    }
+
+    @Test
+    void testAtomicBatchRejectsEverythingOnInvalidItem() {
+        // Given
+        LearningBatchRequest request = new LearningBatchRequest();
+        request.getCreate().add(learning("Fine"));
+        Learning broken = learning("Broken");
+        broken.setCustomProperties("{oops");
+        request.getCreate().add(broken);
+        request.getDelete().add(987654L);
+
+        // When
+        LearningBatchService.Result result = batchService.apply(request, true);
+
+        // Then
+        assertThat(result.isApplied()).isFalse();
+        assertThat(result.getCreated()).isEmpty();
+        assertThat(learningRepository.count()).isZero();
+        assertThat(result.getErrors()).extracting(error -> error.get("operation") + "#" + error.get("index"))
+                .containsExactlyInAnyOrder("create#1", "delete#0");
+    }
+
+    @Test
+    void testPerItemBatchWritesValidItems() {
+        // Given
+        LearningBatchRequest request = new LearningBatchRequest();
+        request.getCreate().add(learning("Fine"));
+        Learning missing = learning("Missing");
+        missing.setId(987654L);
+        request.getUpdate().add(missing);
+
+        // When
+        LearningBatchService.Result result = batchService.apply(request, false);
+
+        // Then
+        assertThat(result.isApplied()).isTrue();
+        assertThat(result.getCreated()).hasSize(1);
+        List<Map<String, Object>> errors = new ArrayList<>(result.getErrors());
+        assertThat(errors).hasSize(1);
+        assertThat(errors.get(0)).containsEntry("operation", "update").containsEntry("id", 987654L)
+                .containsEntry("error", "Learning not found");
+    }
+
+    private Learning learning(String title) {
+        Learning learning = new Learning();
+        learning.setTitle(title);
+        learning.setCategory("Job");
+        learning.setTags("import");
+        learning.setCustomProperties("{\"source\":\"batch\"}");
+        return learning;
+    }
+}
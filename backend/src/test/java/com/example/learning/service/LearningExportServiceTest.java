@@ -0,0 +1,76 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.repository.LearningRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.AutoConfigureJson;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureJson
+@ActiveProfiles("test")
+@Import(LearningExportService.class)
+class LearningExportServiceTest {
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private LearningExportService learningExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        learningRepository.deleteAll();
+        for (int i = 1; i <= 3; i++) {
+            Learning learning = new Learning();
+            learning.setTitle("Learning " + i);
+            learning.setDescription("Description " + i);
+            learning.setCategory("Job");
+            learning.setDate(LocalDate.of(2023, 10, i));
+            learningRepository.save(learning);
+        }
+    }
+
+    @Test
+    void testExportNdjson() throws Exception {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = learningExportService.export(out, LearningExportService.Format.NDJSON);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        assertThat(lines).allSatisfy(line -> assertThat(line).startsWith("{"));
+        assertThat(objectMapper.readTree(lines[0]).get("title").asText()).isEqualTo("Learning 1");
+        assertThat(objectMapper.readTree(lines[2]).get("date").asText()).isEqualTo("2023-10-03");
+    }
+
+    @Test
+    void testExportJsonArray() throws Exception {
+        // When
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        learningExportService.export(out, LearningExportService.Format.JSON);
+
+        // Then
+        JsonNode array = objectMapper.readTree(out.toByteArray());
+        assertThat(array.isArray()).isTrue();
+        assertThat(array.size()).isEqualTo(3);
+        assertThat(array.get(1).get("description").asText()).isEqualTo("Description 2");
+    }
+}
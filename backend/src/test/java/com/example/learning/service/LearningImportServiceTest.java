@@ -0,0 +1,251 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.ImportJob;
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningBatchChangedEvent;
+import com.example.learning.repository.AttachmentRefRepository;
+import com.example.learning.repository.ImportJobRepository;
+import com.example.learning.repository.LearningRepository;
+import com.example.learning.repository.LearningTagRepository;
+import com.example.learning.repository.TagRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+@ActiveProfiles("test")
+// Every batch commits in its own transaction, as in the background worker
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class LearningImportServiceTest {
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private ImportJobRepository importJobRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private LearningTagRepository learningTagRepository;
+
+    @Autowired
+    private AttachmentRefRepository attachmentRefRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path importDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private String failOnTitle;
+    private String rejectTitle;
+    private LearningImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        learningRepository.deleteAll();
+        importJobRepository.deleteAll();
+        // Fails the batch containing failOnTitle once, like a database outage mid-import
+        ApplicationEventPublisher publisher = event -> {
+            if (event instanceof LearningBatchChangedEvent batch && batch.getChanges().stream()
+                    .anyMatch(change -> change.getAfter().getTitle().equals(failOnTitle))) {
+                failOnTitle = null;
+                throw new IllegalStateException("Connection lost");
+            }
+            // Rejects every batch containing rejectTitle, like a constraint the validator doesn't know
+            if (event instanceof LearningBatchChangedEvent batch && batch.getChanges().stream()
+                    .anyMatch(change -> change.getAfter().getTitle().equals(rejectTitle))) {
+                throw new DataIntegrityViolationException("Value rejected: " + rejectTitle);
+            }
+        };
+        LearningBatchService batchService = new LearningBatchService(learningRepository,
+                new LearningValidator(objectMapper),
+                new TagService(tagRepository, learningTagRepository, entityManager, transactionManager),
+                new AttachmentRefService(attachmentRefRepository, learningRepository,
+                        org.mockito.Mockito.mock(AttachmentStorageService.class), objectMapper, transactionManager,
+                        Duration.ofHours(1)),
+                publisher, entityManager, 5000, 50);
+        importService = new LearningImportService(importJobRepository, batchService, objectMapper,
+                transactionManager, importDir.toString(), DataSize.ofMegabytes(1), 4, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.destroy();
+    }
+
+    @Test
+    void testCsvReaderHandlesQuotedFields() throws IOException {
+        // Given
+        CsvReader reader = new CsvReader(new StringReader("a,\"b,c\",\"say \"\"hi\"\"\"\r\n\"two\nlines\",,x\n"));
+
+        // When & Then
+        assertThat(reader.readRecord()).containsExactly("a", "b,c", "say \"hi\"");
+        assertThat(reader.readRecord()).containsExactly("two\nlines", "", "x");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void testCsvImportCountsBadRows() throws IOException {
+        // Given
+        String csv = "title,category,date,tags,customProperties\n"
+                + "First,Job,2024-05-01,\"java,spring\",\n"
+                + "Second,Life,not-a-date,,\n"
+                + "Third,Job,2024-05-03,,\"{\"\"level\"\":\"\"senior\"\"}\"\n"
+                + "Fourth,Job,,,{broken\n"
+                + "Fifth,Job\n"
+                + "Sixth,Life,2024-05-06,,\n";
+
+        // When
+        ImportJob job = runImport("csv", csv);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getRowsRead()).isEqualTo(6);
+        assertThat(job.getRowsImported()).isEqualTo(3);
+        assertThat(job.getRowsFailed()).isEqualTo(3);
+        assertThat(job.getLastError()).startsWith("Row 5:");
+        assertThat(job.getBytesRead()).isEqualTo(job.getBytesTotal());
+        assertThat(learningRepository.findAll()).extracting(Learning::getTitle)
+                .containsExactlyInAnyOrder("First", "Third", "Sixth");
+        Learning first = learningRepository.findAll().stream()
+                .filter(learning -> learning.getTitle().equals("First")).findFirst().orElseThrow();
+        assertThat(first.getTags()).isEqualTo("java,spring");
+        assertThat(first.getDate()).isEqualTo(LocalDate.of(2024, 5, 1));
+    }
+
+    @Test
+    void testNdjsonImportReadsExportFormat() throws IOException {
+        // Given
+        String ndjson = "{\"id\":99,\"title\":\"Exported\",\"category\":\"Job\",\"date\":\"2024-01-02\","
+                + "\"customProperties\":\"{\\\"a\\\":\\\"b\\\"}\"}\n"
+                + "\n"
+                + "{not json\n"
+                + "{\"title\":\"Second\"}\n";
+
+        // When
+        ImportJob job = runImport("ndjson", ndjson);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getRowsImported()).isEqualTo(2);
+        assertThat(job.getRowsFailed()).isEqualTo(1);
+        assertThat(job.getLastError()).startsWith("Row 3: Invalid JSON");
+        assertThat(learningRepository.findAll()).extracting(Learning::getTitle)
+                .containsExactlyInAnyOrder("Exported", "Second");
+    }
+
+    @Test
+    void testResumeContinuesAfterLastCommittedBatch() throws IOException {
+        // Given
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 10; i++) {
+            ndjson.append("{\"title\":\"Learning ").append(i).append("\"}\n");
+        }
+        failOnTitle = "Learning 7";
+
+        // When: batches of 4, the second one fails
+        ImportJob failed = runImport("ndjson", ndjson.toString());
+
+        // Then
+        assertThat(failed.getStatus()).isEqualTo(ImportJob.Status.FAILED);
+        assertThat(failed.getRowsRead()).isEqualTo(4);
+        assertThat(failed.getLastError()).isEqualTo("Connection lost");
+        assertThat(learningRepository.count()).isEqualTo(4);
+
+        // When
+        importService.run(failed.getId());
+
+        // Then: every record exactly once
+        ImportJob resumed = importJobRepository.findById(failed.getId()).orElseThrow();
+        assertThat(resumed.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(resumed.getRowsRead()).isEqualTo(10);
+        assertThat(resumed.getRowsImported()).isEqualTo(10);
+        assertThat(learningRepository.findAll()).extracting(Learning::getTitle).doesNotHaveDuplicates().hasSize(10);
+        assertThat(importDir.resolve(failed.getId() + ".data")).doesNotExist();
+    }
+
+    @Test
+    void testRowsTheDatabaseRejectsAreCountedAndSkipped() throws IOException {
+        // Given
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 1; i <= 10; i++) {
+            String title = i == 2 ? "x".repeat(300) : "Learning " + i;
+            ndjson.append("{\"title\":\"").append(title).append("\"}\n");
+        }
+        ndjson.append("{not json\n");
+        rejectTitle = "Learning 6";
+
+        // When: batches of 4, the second one is rejected by the database
+        ImportJob job = runImport("ndjson", ndjson.toString());
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getRowsRead()).isEqualTo(11);
+        assertThat(job.getRowsImported()).isEqualTo(8);
+        assertThat(job.getRowsFailed()).isEqualTo(3);
+        assertThat(learningRepository.findAll()).extracting(Learning::getTitle)
+                .doesNotContain("Learning 2", "Learning 6").doesNotHaveDuplicates().hasSize(8);
+    }
+
+    @Test
+    void testRejectedRowIsReported() throws IOException {
+        // Given
+        rejectTitle = "Learning 2";
+
+        // When
+        ImportJob job = runImport("ndjson", "{\"title\":\"Learning 1\"}\n{\"title\":\"Learning 2\"}\n");
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(ImportJob.Status.COMPLETED);
+        assertThat(job.getRowsImported()).isEqualTo(1);
+        assertThat(job.getRowsFailed()).isEqualTo(1);
+        assertThat(job.getLastError()).isEqualTo("Row 2: Value rejected: Learning 2");
+    }
+
+    @Test
+    void testLongFilenameIsRejectedBeforeTheFileIsStored() {
+        // When & Then
+        assertThatThrownBy(() -> importService.store("csv", "x".repeat(256) + ".csv",
+                new ByteArrayInputStream("title\nFirst\n".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(importDir).isEmptyDirectory();
+        assertThat(importJobRepository.count()).isZero();
+    }
+
+    private ImportJob runImport(String format, String content) throws IOException {
+        ImportJob job = importService.store(format, "test." + format,
+                new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+        importService.run(job.getId());
+        return importJobRepository.findById(job.getId()).orElseThrow();
+    }
+}
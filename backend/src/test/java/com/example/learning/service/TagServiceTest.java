@@ -0,0 +1,127 @@
+package com.example.learning.service;
+
+import com.example.learning.entity.Learning;
+import com.example.learning.event.LearningChangedEvent;
+import com.example.learning.repository.LearningRepository;
+import com.example.learning.repository.LearningTagRepository;
+import com.example.learning.repository.TagRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+// Join rows are written in their own transaction, as after a real commit
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class TagServiceTest {
+
+    @Autowired
+    private LearningRepository learningRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private LearningTagRepository learningTagRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TagService tagService;
+
+    @BeforeEach
+    void setUp() {
+        learningTagRepository.deleteAll();
+        tagRepository.deleteAll();
+        learningRepository.deleteAll();
+        tagService = new TagService(tagRepository, learningTagRepository, entityManager, transactionManager);
+    }
+
+    @Test
+    void testParseTagsNormalizes() {
+        assertThat(TagService.parseTags(" Java, spring ,,JAVA, "))
+                .containsExactly("java", "spring");
+        assertThat(TagService.parseTags(List.of("java,sql", "Docker"))).containsExactly("java", "sql", "docker");
+        assertThat(TagService.parseTags((String) null)).isEmpty();
+    }
+
+    @Test
+    void testJoinRowsFollowLearningChanges() {
+        // Given
+        Learning learning = save("Streams", "java, spring");
+
+        // When
+        tagService.onLearningChanged(LearningChangedEvent.created(learning));
+
+        // Then
+        assertThat(learningTagRepository.findTagNamesByLearningId(learning.getId()))
+                .containsExactlyInAnyOrder("java", "spring");
+
+        // When - one tag replaced
+        Learning before = LearningChangedEvent.snapshot(learning);
+        learning.setTags("Java,docker");
+        learningRepository.save(learning);
+        tagService.onLearningChanged(LearningChangedEvent.updated(before, learning));
+
+        // Then
+        assertThat(learningTagRepository.findTagNamesByLearningId(learning.getId()))
+                .containsExactlyInAnyOrder("java", "docker");
+
+        // When - deleted
+        learningRepository.delete(learning);
+        tagService.onLearningChanged(LearningChangedEvent.deleted(learning));
+
+        // Then
+        assertThat(learningTagRepository.count()).isZero();
+        assertThat(tagRepository.findByName("java")).isPresent();
+    }
+
+    @Test
+    void testTagFiltersMatchExactTags() {
+        // Given
+        Learning java = index(save("Records", "java"));
+        Learning javascript = index(save("Promises", "javascript"));
+        Learning both = index(save("GraalJS", "java,javascript"));
+
+        // When
+        Page<Learning> all = learningRepository.findByAllTags(Set.of("java", "javascript"), 2,
+                PageRequest.of(0, 10));
+        Page<Learning> any = learningRepository.findByAnyTag(Set.of("java", "javascript"), PageRequest.of(0, 10));
+        Page<Learning> exact = learningRepository.findByAnyTag(Set.of("java"), PageRequest.of(0, 10));
+
+        // Then
+        assertThat(all.getContent()).extracting(Learning::getId).containsExactly(both.getId());
+        assertThat(any.getTotalElements()).isEqualTo(3);
+        assertThat(exact.getContent()).extracting(Learning::getId)
+                .containsExactlyInAnyOrder(java.getId(), both.getId())
+                .doesNotContain(javascript.getId());
+    }
+
+    private Learning save(String title, String tags) {
+        Learning learning = new Learning();
+        learning.setTitle(title);
+        learning.setTags(tags);
+        return learningRepository.save(learning);
+    }
+
+    private Learning index(Learning learning) {
+        tagService.onLearningChanged(LearningChangedEvent.created(learning));
+        return learning;
+    }
+}
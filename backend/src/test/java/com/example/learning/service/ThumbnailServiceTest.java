@@ -0,0 +1,127 @@
+package com.example.learning.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ThumbnailServiceTest {
+
+    @TempDir
+    Path uploadDir;
+
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        thumbnailService = new ThumbnailService(
+                new AttachmentStorageService(uploadDir.toString(), "uuid", meterRegistry),
+                List.of(160, 480), 1, 10, 25_000_000, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailService.destroy();
+    }
+
+    @Test
+    void testGenerateWritesResizedVariants() throws Exception {
+        // Given
+        writeImage("photo.png", 1200, 800);
+
+        // When
+        thumbnailService.generate("photo.png");
+
+        // Then
+        BufferedImage small = ImageIO.read(uploadDir.resolve("photo_w160.png").toFile());
+        BufferedImage medium = ImageIO.read(uploadDir.resolve("photo_w480.png").toFile());
+        assertThat(small.getWidth()).isEqualTo(160);
+        assertThat(small.getHeight()).isEqualTo(107);
+        assertThat(medium.getWidth()).isEqualTo(480);
+        assertThat(Files.size(uploadDir.resolve("photo_w160.png")))
+                .isLessThan(Files.size(uploadDir.resolve("photo.png")));
+    }
+
+    @Test
+    void testSmallImageVariantsReuseOriginal() throws Exception {
+        // Given
+        writeImage("icon.png", 100, 100);
+
+        // When
+        thumbnailService.generate("icon.png");
+
+        // Then
+        assertThat(Files.readAllBytes(uploadDir.resolve("icon_w160.png")))
+                .isEqualTo(Files.readAllBytes(uploadDir.resolve("icon.png")));
+    }
+
+    @Test
+    void testTransparentImageGetsVariantsInAFormatWithoutAlpha() throws Exception {
+        // Given - decodes with an alpha channel, which the BMP writer refuses
+        BufferedImage image = new BufferedImage(800, 600, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(new Color(0, 0, 255, 128));
+        graphics.fillOval(200, 150, 400, 300);
+        graphics.dispose();
+        ImageIO.write(image, "png", uploadDir.resolve("sketch.bmp").toFile());
+
+        // When
+        thumbnailService.generate("sketch.bmp");
+
+        // Then
+        BufferedImage small = ImageIO.read(uploadDir.resolve("sketch_w160.bmp").toFile());
+        assertThat(small.getWidth()).isEqualTo(160);
+        assertThat(small.getColorModel().hasAlpha()).isFalse();
+        assertThat(small.getRGB(0, 0)).isEqualTo(Color.WHITE.getRGB());
+    }
+
+    @Test
+    void testSubmitNamesVariantsOnlyForImages() {
+        // When / Then
+        assertThat(thumbnailService.submit("report.pdf")).isEmpty();
+        assertThat(thumbnailService.variantNames("a1b2.JPG"))
+                .isEqualTo(Map.of("w160", "a1b2_w160.JPG", "w480", "a1b2_w480.JPG"));
+    }
+
+    @Test
+    void testUndecodableImageIsSkipped() throws Exception {
+        // Given
+        Files.writeString(uploadDir.resolve("broken.png"), "not really a png");
+
+        // When
+        thumbnailService.generate("broken.png");
+
+        // Then
+        assertThat(uploadDir.resolve("broken_w160.png")).doesNotExist();
+    }
+
+    @Test
+    void testOriginalOfVariant() {
+        assertThat(ThumbnailService.originalOf("a1b2_w160.png")).isEqualTo("a1b2.png");
+        assertThat(ThumbnailService.originalOf("a1b2.png")).isNull();
+    }
+
+    private void writeImage(String name, int width, int height) throws Exception {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLUE);
+        graphics.fillOval(width / 4, height / 4, width / 2, height / 2);
+        graphics.dispose();
+        ImageIO.write(image, "png", uploadDir.resolve(name).toFile());
+    }
+}
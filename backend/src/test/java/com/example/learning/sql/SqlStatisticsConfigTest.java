@@ -0,0 +1,39 @@
+package com.example.learning.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatisticsConfigTest {
+
+    // Boot's conversion service, for the Duration and List @Values
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner(() -> {
+                AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+                context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+                return context;
+            })
+            .withBean(SimpleMeterRegistry.class)
+            .withBean(DataSource.class, () -> new DriverManagerDataSource("jdbc:h2:mem:sql-stats"))
+            .withUserConfiguration(SqlStatisticsConfig.class);
+
+    @Test
+    void testWrapsTheDataSourceByDefault() {
+        contextRunner.run(context -> assertThat(context.getBean(DataSource.class)).isInstanceOf(ProxyDataSource.class));
+    }
+
+    @Test
+    void testCanBeSwitchedOff() {
+        contextRunner.withPropertyValues("learning.sql-stats.enabled=false").run(context -> {
+            assertThat(context).doesNotHaveBean(SqlStatisticsListener.class);
+            assertThat(context.getBean(DataSource.class)).isInstanceOf(DriverManagerDataSource.class);
+        });
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.learning.sql;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlStatisticsListenerTest {
+
+    private final SqlStatisticsListener listener = new SqlStatisticsListener(Duration.ofMillis(500),
+            List.of("users"), new SimpleMeterRegistry());
+
+    @Test
+    void testLogsBindParameters() throws Exception {
+        // Given
+        String sql = "select * from learning where id=?";
+
+        // When & Then
+        assertThat(listener.formatParameters(sql, query(sql, "42"))).isEqualTo("[(42)]");
+    }
+
+    @Test
+    void testRedactsParametersOfSensitiveTables() throws Exception {
+        // Given
+        String sql = "insert into USERS (username,password) values (?,?)";
+
+        // When & Then
+        assertThat(listener.formatParameters(sql, query(sql, "alice", "$2a$10$hash"))).isEqualTo("[redacted]");
+        assertThat(listener.formatParameters("select * from users_archive where id=?",
+                query(sql, "1"))).isEqualTo("[(1)]");
+    }
+
+    private static List<QueryInfo> query(String sql, String... values) throws Exception {
+        QueryInfo queryInfo = new QueryInfo(sql);
+        List<ParameterSetOperation> parameters = new java.util.ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            parameters.add(new ParameterSetOperation(
+                    PreparedStatement.class.getMethod("setString", int.class, String.class),
+                    new Object[]{i + 1, values[i]}));
+        }
+        queryInfo.getParametersList().add(parameters);
+        return List.of(queryInfo);
+    }
+}
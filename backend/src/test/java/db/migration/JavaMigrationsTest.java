@@ -0,0 +1,91 @@
+package db.migration;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// The test profile builds the schema with ddl-auto; this runs the real migrations on existing rows
+class JavaMigrationsTest {
+
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:migrations-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void testBackfillsTagsAndStartsTheSequenceAboveExistingIds() {
+        // Given - rows written before the tag tables and the sequence existed
+        migrate("7");
+        insertLearning(1, "Java, Spring ,JAVA");
+        insertLearning(2, "spring,,docker");
+        insertLearning(3, "");
+        insertLearning(120, null);
+
+        // When
+        migrate(null);
+
+        // Then
+        assertThat(tagsOf(1)).containsExactlyInAnyOrder("java", "spring");
+        assertThat(tagsOf(2)).containsExactlyInAnyOrder("spring", "docker");
+        assertThat(tagsOf(3)).isEmpty();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tag", Long.class)).isEqualTo(3);
+        // Pooled optimizer: a sequence value hands out the block of 50 ids ending at it
+        long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR learning_seq", Long.class);
+        assertThat(next - 50 + 1).isGreaterThan(120);
+    }
+
+    @Test
+    void testIdsNoLongerComeFromTheIdentityDefault() {
+        // Given
+        migrate(null);
+
+        // When & Then - an outside insert must take its id from learning_seq
+        assertThatThrownBy(() -> jdbcTemplate.update("INSERT INTO learning (title, category) VALUES ('Outside', 'Job')"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        jdbcTemplate.update("INSERT INTO learning (id, title, category) VALUES (NEXT VALUE FOR learning_seq, 'Outside', 'Job')");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM learning", Long.class)).isEqualTo(1);
+    }
+
+    @Test
+    void testEmptyDatabase() {
+        // When
+        migrate(null);
+
+        // Then
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM learning_tag", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR learning_seq", Long.class)).isEqualTo(51);
+    }
+
+    private void migrate(String target) {
+        var configuration = Flyway.configure().dataSource(dataSource).locations("classpath:db/migration");
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
+
+    private void insertLearning(long id, String tags) {
+        jdbcTemplate.update("INSERT INTO learning (id, title, category, tags) VALUES (?, ?, 'Job', ?)",
+                id, "Learning " + id, tags);
+    }
+
+    private List<String> tagsOf(long learningId) {
+        return jdbcTemplate.queryForList("SELECT t.name FROM learning_tag lt JOIN tag t ON t.id = lt.tag_id "
+                + "WHERE lt.learning_id = ?", String.class, learningId);
+    }
+}
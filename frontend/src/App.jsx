@@ -1,4 +1,4 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useRef } from 'react';
 import LearningList from './components/LearningList';
 import LearningListTable from './components/LearningListTable';
 import LearningForm from './components/LearningForm';
@@ -6,6 +6,7 @@ import LearningDetail from './components/LearningDetail';
 import Login from './components/Login';
 import Register from './components/Register';
 import { useAuth } from './context/AuthContext';
+import { subscribeToLearningChanges } from './learningFeed';
 
 function App() {
   const { isAuthenticated, loading: authLoading, user, logout, token } = useAuth();
@@ -38,9 +39,32 @@ function App() {
     }
   }, [isAuthenticated, searchTerm, token]);
 
+  // Apply pushed changes instead of polling; latest page state is read through a ref
+  const feedStateRef = useRef({});
+  feedStateRef.current = { page: pagination.currentPage, searchTerm };
+  useEffect(() => {
+    if (!isAuthenticated || !token) {
+      return undefined;
+    }
+    return subscribeToLearningChanges(token, (type, change) => {
+      const { page, searchTerm: term } = feedStateRef.current;
+      if (type === 'updated' && !term) {
+        // Summary list: the pushed summary replaces the item in place
+        setLearnings(current => current.map(item => item.id === change.id ? change.learning : item));
+      } else if (type === 'deleted') {
+        setLearnings(current => current.filter(item => item.id !== change.id));
+        setPagination(current => ({ ...current, totalItems: Math.max(current.totalItems - 1, 0) }));
+      } else {
+        // New items shift pagination, search results need full rows, reset means we missed changes
+        fetchLearnings(page, 10, term);
+      }
+    });
+  }, [isAuthenticated, token]);
+
   const fetchLearnings = async (page = 0, size = 10, searchTerm = '') => {
     try {
-      const searchParam = searchTerm ? `&search=${encodeURIComponent(searchTerm)}` : '';
+      // Without a search the list only needs the summary columns; search results stay full for the client-side filter
+      const searchParam = searchTerm ? `&search=${encodeURIComponent(searchTerm)}` : '&view=summary';
       const headers = {};
       if (token) {
         headers['Authorization'] = `Bearer ${token}`;
@@ -72,14 +96,40 @@ function App() {
     setView('add');
   };
 
-  const handleEditClick = (item) => {
-    setEditingItem(item);
+  // List items may be summaries without description, attachments and custom properties:
+  // edit and view always load the full learning so a save cannot drop them
+  const fetchLearning = async (item) => {
+    try {
+      const headers = {};
+      if (token) {
+        headers['Authorization'] = `Bearer ${token}`;
+      }
+      const response = await fetch(`/api/learnings/${item.id}`, { headers });
+      if (response.ok) {
+        return await response.json();
+      }
+    } catch (error) {
+      console.error('Error fetching learning:', error);
+    }
+    return null;
+  };
+
+  const handleEditClick = async (item) => {
+    const learning = await fetchLearning(item);
+    if (!learning) {
+      return;
+    }
+    setEditingItem(learning);
     setViewingItem(null);
     setView('edit');
   };
 
-  const handleViewClick = (item) => {
-    setViewingItem(item);
+  const handleViewClick = async (item) => {
+    const learning = await fetchLearning(item);
+    if (!learning) {
+      return;
+    }
+    setViewingItem(learning);
     setEditingItem(null);
     setView('view');
   };
@@ -49,7 +49,7 @@ const LearningDetail = ({ learning, onClose, onEdit }) => {
                                         }}>
                                             {isImage ? (
                                                 <img
-                                                    src={attachment.url}
+                                                    src={attachment.previews?.w160 || attachment.url}
                                                     alt={attachment.filename}
                                                     style={{
                                                         width: '100px',
@@ -447,7 +447,7 @@ const LearningForm = ({ onSubmit, onCancel, initialData, categories = ['Job', 'L
                                     }}>
                                         {isImage ? (
                                             <img
-                                                src={attachment.url}
+                                                src={attachment.previews?.w160 || attachment.url}
                                                 alt={attachment.filename}
                                                 style={{ width: '60px', height: '60px', objectFit: 'cover', borderRadius: '4px' }}
                                             />
@@ -23,7 +23,9 @@ const LearningList = ({ learnings, onEdit, onDelete, onView }) => {
 
           <h3 style={{ margin: '0 0 0.5rem 0' }}>{learning.title}</h3>
           <div style={{ color: 'var(--text-secondary)', lineHeight: '1.6', marginBottom: '1.5rem' }}
-               dangerouslySetInnerHTML={{ __html: learning.description || '' }}
+               {...(learning.descriptionSnippet === undefined
+                   ? { dangerouslySetInnerHTML: { __html: learning.description || '' } }
+                   : { children: learning.descriptionSnippet })}
           />
 
           {learning.imageUrl && (
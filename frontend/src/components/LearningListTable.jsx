@@ -109,7 +109,9 @@ const LearningListTable = ({ learnings, onEdit, onDelete, onView, sortBy, setSor
                                     WebkitBoxOrient: 'vertical',
                                     lineHeight: '1.4'
                                 }}
-                                dangerouslySetInnerHTML={{ __html: learning.description || '' }}
+                                {...(learning.descriptionSnippet === undefined
+                                    ? { dangerouslySetInnerHTML: { __html: learning.description || '' } }
+                                    : { children: learning.descriptionSnippet })}
                                 />
                             </td>
                             <td>
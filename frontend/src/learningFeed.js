@@ -0,0 +1,71 @@
+// Subscribes to the server-sent change feed (/api/learnings/changes).
+// EventSource can't send the Authorization header, so the stream is read with fetch.
+// On disconnect it reconnects with Last-Event-ID; the server replays what was missed
+// or sends a 'reset' event when the client has to refetch.
+export function subscribeToLearningChanges(token, onEvent) {
+  let lastEventId = null;
+  let controller = null;
+  let stopped = false;
+  let retryDelay = 1000;
+
+  const dispatch = (block) => {
+    let id = null;
+    let name = 'message';
+    const data = [];
+    for (const line of block.split('\n')) {
+      if (line.startsWith(':')) continue; // heartbeat comment
+      const colon = line.indexOf(':');
+      const field = colon < 0 ? line : line.slice(0, colon);
+      const value = colon < 0 ? '' : line.slice(colon + 1).replace(/^ /, '');
+      if (field === 'id') id = value;
+      else if (field === 'event') name = value;
+      else if (field === 'data') data.push(value);
+    }
+    if (id !== null) lastEventId = id;
+    if (data.length > 0) {
+      onEvent(name, JSON.parse(data.join('\n')));
+    }
+  };
+
+  const connect = async () => {
+    controller = new AbortController();
+    const headers = { Accept: 'text/event-stream' };
+    if (token) {
+      headers['Authorization'] = `Bearer ${token}`;
+    }
+    if (lastEventId) {
+      headers['Last-Event-ID'] = lastEventId;
+    }
+    try {
+      const response = await fetch('/api/learnings/changes', { headers, signal: controller.signal });
+      if (response.ok && response.body) {
+        retryDelay = 1000;
+        const reader = response.body.pipeThrough(new TextDecoderStream()).getReader();
+        let buffer = '';
+        for (;;) {
+          const { value, done } = await reader.read();
+          if (done) break;
+          buffer += value.replace(/\r\n?/g, '\n');
+          let end;
+          while ((end = buffer.indexOf('\n\n')) >= 0) {
+            dispatch(buffer.slice(0, end));
+            buffer = buffer.slice(end + 2);
+          }
+        }
+      }
+    } catch (error) {
+      if (stopped) return;
+      console.error('Change feed disconnected:', error);
+    }
+    if (!stopped) {
+      setTimeout(connect, retryDelay);
+      retryDelay = Math.min(retryDelay * 2, 30000);
+    }
+  };
+
+  connect();
+  return () => {
+    stopped = true;
+    if (controller) controller.abort();
+  };
+}